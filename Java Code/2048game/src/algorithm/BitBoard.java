@@ -0,0 +1,607 @@
+package algorithm;
+
+import java.util.Random;
+
+/**
+ * Packed representation of the game board. The 16 cells are stored as 4-bit exponents in a single <code>long</code>, cell <code>BOARD_SIZE * i + j</code> occupying bits
+ * <code>4 * (BOARD_SIZE * i + j)</code> to <code>4 * (BOARD_SIZE * i + j) + 3</code>. An exponent of 0 is an empty cell, an exponent of <code>e</code> is a tile of value
+ * <code>2^e</code>.
+ * <p>
+ * All operations are pure functions on the packed value, so a search can walk the game tree without allocating. The results are the same as the ones produced by
+ * {@link Board#move(DirectionStatus)} and {@link Board#isGameTerminated()} on the equivalent {@link Board}. The largest tile that can be represented is 32768, two of those
+ * tiles never merge.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public final class BitBoard
+{
+	/**
+	 * The empty board
+	 */
+	public static final long	EMPTY_BOARD		= 0L;
+	/**
+	 * Number of cells on the board
+	 */
+	public static final int		CELL_COUNT		= Board.BOARD_SIZE * Board.BOARD_SIZE;
+	/**
+	 * Largest exponent that fits in one cell
+	 */
+	public static final int		MAX_EXPONENT	= 15;
+	/**
+	 * Mask of one cell
+	 */
+	private static final long	CELL_MASK		= 0xFL;
+	/**
+	 * Mask of one row
+	 */
+	private static final int	ROW_MASK		= 0xFFFF;
+	/**
+	 * Exponent of the target tile
+	 */
+	static final int			TARGET_EXPONENT	= Integer.numberOfTrailingZeros(Board.TARGET_POINTS);
+
+	/**
+	 * Not instantiable.
+	 */
+	private BitBoard()
+	{
+	}
+
+	/**
+	 * Packs a board array.
+	 *
+	 * @param boardArray
+	 *            board array, every value being 0 or a power of two
+	 * @return packed board
+	 */
+	public static long fromArray(int[][] boardArray)
+	{
+		long board = EMPTY_BOARD;
+		for (int i = 0; i < Board.BOARD_SIZE; ++i)
+			for (int j = 0; j < Board.BOARD_SIZE; ++j)
+				board = setExponent(board, Board.BOARD_SIZE * i + j, toExponent(boardArray[i][j]));
+		return board;
+	}
+
+	/**
+	 * Unpacks a board into a new board array.
+	 *
+	 * @param board
+	 *            packed board
+	 * @return board array
+	 */
+	public static int[][] toArray(long board)
+	{
+		int[][] boardArray = new int[Board.BOARD_SIZE][Board.BOARD_SIZE];
+		for (int i = 0; i < Board.BOARD_SIZE; ++i)
+			for (int j = 0; j < Board.BOARD_SIZE; ++j)
+				boardArray[i][j] = getValue(board, Board.BOARD_SIZE * i + j);
+		return boardArray;
+	}
+
+	/**
+	 * Converts a tile value to its exponent.
+	 *
+	 * @param value
+	 *            tile value, 0 or a power of two
+	 * @return exponent, 0 for an empty cell
+	 */
+	public static int toExponent(int value)
+	{
+		if (value == 0)
+			return 0;
+		return Integer.numberOfTrailingZeros(value);
+	}
+
+	/**
+	 * Converts an exponent to its tile value.
+	 *
+	 * @param exponent
+	 *            exponent, 0 for an empty cell
+	 * @return tile value
+	 */
+	public static int toValue(int exponent)
+	{
+		if (exponent == 0)
+			return 0;
+		return 1 << exponent;
+	}
+
+	/**
+	 * Returns the exponent stored in a cell.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param cellId
+	 *            cell id, numbered by row
+	 * @return exponent of the cell
+	 */
+	public static int getExponent(long board, int cellId)
+	{
+		return (int) ((board >>> (cellId << 2)) & CELL_MASK);
+	}
+
+	/**
+	 * Returns the tile value stored in a cell.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param cellId
+	 *            cell id, numbered by row
+	 * @return value of the cell
+	 */
+	public static int getValue(long board, int cellId)
+	{
+		return toValue(getExponent(board, cellId));
+	}
+
+	/**
+	 * Stores an exponent in a cell.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param cellId
+	 *            cell id, numbered by row
+	 * @param exponent
+	 *            exponent to be stored
+	 * @return new packed board
+	 */
+	public static long setExponent(long board, int cellId, int exponent)
+	{
+		int shift = cellId << 2;
+		return (board & ~(CELL_MASK << shift)) | ((exponent & CELL_MASK) << shift);
+	}
+
+	/**
+	 * Returns one row of the board as 4 packed exponents, the first column in the lowest bits.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param row
+	 *            row index
+	 * @return packed row
+	 */
+	public static int getRow(long board, int row)
+	{
+		return (int) (board >>> (row << 4)) & ROW_MASK;
+	}
+
+	/**
+	 * Returns one column of the board as 4 packed exponents, the first row in the lowest bits.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param column
+	 *            column index
+	 * @return packed column
+	 */
+	public static int getColumn(long board, int column)
+	{
+		return getRow(transpose(board), column);
+	}
+
+	/**
+	 * Returns the board with one row replaced.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param row
+	 *            row index
+	 * @param packedRow
+	 *            packed row
+	 * @return new packed board
+	 */
+	public static long setRow(long board, int row, int packedRow)
+	{
+		int shift = row << 4;
+		return (board & ~((long) ROW_MASK << shift)) | ((long) (packedRow & ROW_MASK) << shift);
+	}
+
+	/**
+	 * Returns the board with one column replaced.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param column
+	 *            column index
+	 * @param packedColumn
+	 *            packed column
+	 * @return new packed board
+	 */
+	public static long setColumn(long board, int column, int packedColumn)
+	{
+		return transpose(setRow(transpose(board), column, packedColumn));
+	}
+
+	/**
+	 * Swaps rows and columns, so that column <code>k</code> of the board becomes row <code>k</code> of the result.
+	 *
+	 * @param board
+	 *            packed board
+	 * @return transposed packed board
+	 */
+	public static long transpose(long board)
+	{
+		long a1 = board & 0xF0F00F0FF0F00F0FL;
+		long a2 = board & 0x0000F0F00000F0F0L;
+		long a3 = board & 0x0F0F00000F0F0000L;
+		long a = a1 | (a2 << 12) | (a3 >>> 12);
+		long b1 = a & 0xFF00FF0000FF00FFL;
+		long b2 = a & 0x00FF00FF00000000L;
+		long b3 = a & 0x00000000FF00FF00L;
+		return b1 | (b2 >>> 24) | (b3 << 24);
+	}
+
+	/**
+	 * Performs one move (up, down, left or right). Every row is looked up in the precomputed {@link MoveTable}, up and down moves slide the rows of the transposed board.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param direction
+	 *            move direction
+	 * @return new packed board, equal to the given one if nothing moved
+	 */
+	public static long move(long board, DirectionStatus direction)
+	{
+		switch (direction)
+		{
+			case LEFT:
+				return slideRows(board, MoveTable.LEFT);
+			case RIGHT:
+				return slideRows(board, MoveTable.RIGHT);
+			case UP:
+				return transpose(slideRows(transpose(board), MoveTable.LEFT));
+			case DOWN:
+				return transpose(slideRows(transpose(board), MoveTable.RIGHT));
+			default:
+				return board;
+		}
+	}
+
+	/**
+	 * Returns the points a move would score.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param direction
+	 *            move direction
+	 * @return points scored by the merges of the move
+	 */
+	public static int moveScore(long board, DirectionStatus direction)
+	{
+		switch (direction)
+		{
+			case LEFT:
+				return scoreRows(board, MoveTable.SCORE_LEFT);
+			case RIGHT:
+				return scoreRows(board, MoveTable.SCORE_RIGHT);
+			case UP:
+				return scoreRows(transpose(board), MoveTable.SCORE_LEFT);
+			case DOWN:
+				return scoreRows(transpose(board), MoveTable.SCORE_RIGHT);
+			default:
+				return 0;
+		}
+	}
+
+	/**
+	 * Returns a mask with bit <code>cellId</code> set for every empty cell.
+	 *
+	 * @param board
+	 *            packed board
+	 * @return mask of empty cells
+	 */
+	public static int emptyCellMask(long board)
+	{
+		// fold every nibble onto its lowest bit, a set bit then marks an occupied cell
+		long occupied = board | (board >>> 1);
+		occupied |= occupied >>> 2;
+		occupied &= 0x1111111111111111L;
+		int mask = 0;
+		for (int cellId = 0; cellId < CELL_COUNT; ++cellId)
+			if ((occupied & (1L << (cellId << 2))) == 0)
+				mask |= 1 << cellId;
+		return mask;
+	}
+
+	/**
+	 * Counts the number of empty cells.
+	 *
+	 * @param board
+	 *            packed board
+	 * @return number of empty cells
+	 */
+	public static int countEmptyCells(long board)
+	{
+		long occupied = board | (board >>> 1);
+		occupied |= occupied >>> 2;
+		occupied &= 0x1111111111111111L;
+		return CELL_COUNT - Long.bitCount(occupied);
+	}
+
+	/**
+	 * Puts a tile in the n-th empty cell, counting by row.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param emptyCellIndex
+	 *            index of the empty cell among the empty cells
+	 * @param exponent
+	 *            exponent of the new tile
+	 * @return new packed board
+	 */
+	public static long addTile(long board, int emptyCellIndex, int exponent)
+	{
+		int mask = emptyCellMask(board);
+		for (int k = 0; k < emptyCellIndex; ++k)
+			mask &= mask - 1;
+		return setExponent(board, Integer.numberOfTrailingZeros(mask), exponent);
+	}
+
+	/**
+	 * Puts a random tile in a random empty cell. The random generator is used exactly like {@link Board} does, so the same generator state produces the same tile.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param randomGenerator
+	 *            random generator
+	 * @return new packed board, equal to the given one if there is no empty cell
+	 */
+	public static long addRandomTile(long board, Random randomGenerator)
+	{
+		return addRandomTile(board, new RandomSpawnSource(randomGenerator));
+	}
+
+	/**
+	 * Puts a random tile in a random empty cell. The spawn source is used exactly like {@link Board} does, so the same source state produces the same tile.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param spawnSource
+	 *            source of the new tile
+	 * @return new packed board, equal to the given one if there is no empty cell
+	 */
+	public static long addRandomTile(long board, SpawnSource spawnSource)
+	{
+		int emptyCells = countEmptyCells(board);
+		if (emptyCells == 0)
+			return board;
+		int emptyCellIndex = spawnSource.nextCell(emptyCells);
+		int exponent = spawnSource.nextIsFour() ? 2 : 1;
+		return addTile(board, emptyCellIndex, exponent);
+	}
+
+	/**
+	 * Returns the largest exponent on the board.
+	 *
+	 * @param board
+	 *            packed board
+	 * @return largest exponent
+	 */
+	public static int maxExponent(long board)
+	{
+		int max = 0;
+		for (int cellId = 0; cellId < CELL_COUNT; ++cellId)
+			max = Math.max(max, getExponent(board, cellId));
+		return max;
+	}
+
+	/**
+	 * Checks if any of the cells has value equal or larger than the target, with the same score condition as {@link Board#hasWon()}.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 * @return if the game is won
+	 */
+	public static boolean hasWon(long board, int score)
+	{
+		if (score < Board.MINIMUM_WIN_SCORE)
+			return false;
+		return maxExponent(board) >= TARGET_EXPONENT;
+	}
+
+	/**
+	 * Returns the moves that change the board, with bit {@link DirectionStatus#getCode()} set for each of them. Every row and column is looked up once in the
+	 * {@link MoveTable}, without performing any move.
+	 *
+	 * @param board
+	 *            packed board
+	 * @return mask of legal moves, 0 if no move is possible
+	 */
+	public static int legalMoveMask(long board)
+	{
+		int rows = slides(board);
+		int columns = slides(transpose(board));
+		// a left or right slide of the transposed board is an up or down move
+		return (rows & MoveTable.SLIDE_LEFT) << DirectionStatus.LEFT.getCode() | (rows & MoveTable.SLIDE_RIGHT) >>> 1 << DirectionStatus.RIGHT.getCode()
+				| (columns & MoveTable.SLIDE_LEFT) << DirectionStatus.UP.getCode() | (columns & MoveTable.SLIDE_RIGHT) >>> 1 << DirectionStatus.DOWN.getCode();
+	}
+
+	/**
+	 * Checks whether a move is in a mask of legal moves.
+	 *
+	 * @param legalMoves
+	 *            mask of legal moves, as returned by {@link #legalMoveMask(long)}
+	 * @param direction
+	 *            move direction
+	 * @return whether the move changes the board
+	 */
+	public static boolean isLegal(int legalMoves, DirectionStatus direction)
+	{
+		return (legalMoves & (1 << direction.getCode())) != 0;
+	}
+
+	/**
+	 * Checks whether any move changes the board.
+	 *
+	 * @param board
+	 *            packed board
+	 * @return whether a move is possible
+	 */
+	public static boolean canMove(long board)
+	{
+		return legalMoveMask(board) != 0;
+	}
+
+	/**
+	 * Checks whether the game is terminated.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 * @return whether game is terminated
+	 */
+	public static boolean isGameTerminated(long board, int score)
+	{
+		if (hasWon(board, score))
+			return true;
+		return countEmptyCells(board) == 0 && !canMove(board);
+	}
+
+	/**
+	 * Replaces every row of the board by its entry in a row table.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param table
+	 *            row table
+	 * @return new packed board
+	 */
+	private static long slideRows(long board, char[] table)
+	{
+		return (long) table[(int) board & ROW_MASK] | ((long) table[(int) (board >>> 16) & ROW_MASK] << 16) | ((long) table[(int) (board >>> 32) & ROW_MASK] << 32)
+				| ((long) table[(int) (board >>> 48) & ROW_MASK] << 48);
+	}
+
+	/**
+	 * Combines the slides that change the rows of the board.
+	 *
+	 * @param board
+	 *            packed board
+	 * @return {@link MoveTable#SLIDE_LEFT} if a left slide changes a row, {@link MoveTable#SLIDE_RIGHT} if a right slide does
+	 */
+	private static int slides(long board)
+	{
+		return MoveTable.SLIDES[(int) board & ROW_MASK] | MoveTable.SLIDES[(int) (board >>> 16) & ROW_MASK] | MoveTable.SLIDES[(int) (board >>> 32) & ROW_MASK]
+				| MoveTable.SLIDES[(int) (board >>> 48) & ROW_MASK];
+	}
+
+	/**
+	 * Sums the entries of a score table over the rows of the board.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param table
+	 *            score table
+	 * @return points
+	 */
+	private static int scoreRows(long board, int[] table)
+	{
+		return table[(int) board & ROW_MASK] + table[(int) (board >>> 16) & ROW_MASK] + table[(int) (board >>> 32) & ROW_MASK] + table[(int) (board >>> 48) & ROW_MASK];
+	}
+
+	/**
+	 * Slides a packed row to the left, with the same merge rules as {@link Board#move(DirectionStatus)}. Used to fill the {@link MoveTable}.
+	 *
+	 * @param packedRow
+	 *            packed row
+	 * @return packed row after the slide
+	 */
+	static int slideRowLeft(int packedRow)
+	{
+		return (int) slide(packedRow) & ROW_MASK;
+	}
+
+	/**
+	 * Returns the points a left slide of a packed row scores.
+	 *
+	 * @param packedRow
+	 *            packed row
+	 * @return points
+	 */
+	static int rowScore(int packedRow)
+	{
+		return (int) (slide(packedRow) >>> 16);
+	}
+
+	/**
+	 * Reverses the order of the cells of a packed row.
+	 *
+	 * @param packedRow
+	 *            packed row
+	 * @return reversed packed row
+	 */
+	static int reverseRow(int packedRow)
+	{
+		return ((packedRow & 0xF) << 12) | ((packedRow & 0xF0) << 4) | ((packedRow >>> 4) & 0xF0) | ((packedRow >>> 12) & 0xF);
+	}
+
+	/**
+	 * Slides a packed row to the left.
+	 *
+	 * @param packedRow
+	 *            packed row
+	 * @return packed row after the slide in the lowest 16 bits, points scored in the bits above
+	 */
+	private static long slide(int packedRow)
+	{
+		int row = packedRow & ROW_MASK;
+		int points = 0;
+		int lastMergePosition = 0;
+		for (int j = 1; j < Board.BOARD_SIZE; ++j)
+		{
+			int current = cellOf(row, j);
+			if (current == 0)
+				continue;
+			int previousPosition = j - 1;
+			while (previousPosition > lastMergePosition && cellOf(row, previousPosition) == 0)
+				--previousPosition;
+			int previous = cellOf(row, previousPosition);
+			if (previous == 0)
+				row = withCell(withCell(row, previousPosition, current), j, 0);
+			else if (previous == current && current < MAX_EXPONENT)
+			{
+				row = withCell(withCell(row, previousPosition, current + 1), j, 0);
+				points += toValue(current + 1);
+				lastMergePosition = previousPosition + 1;
+			}
+			else if (previousPosition + 1 != j)
+				row = withCell(withCell(row, previousPosition + 1, current), j, 0);
+		}
+		return ((long) points << 16) | row;
+	}
+
+	/**
+	 * Returns one cell of a packed row.
+	 *
+	 * @param packedRow
+	 *            packed row
+	 * @param j
+	 *            cell position
+	 * @return exponent
+	 */
+	private static int cellOf(int packedRow, int j)
+	{
+		return (packedRow >>> (j << 2)) & 0xF;
+	}
+
+	/**
+	 * Replaces one cell of a packed row.
+	 *
+	 * @param packedRow
+	 *            packed row
+	 * @param j
+	 *            cell position
+	 * @param exponent
+	 *            exponent to be stored
+	 * @return new packed row
+	 */
+	private static int withCell(int packedRow, int j, int exponent)
+	{
+		int shift = j << 2;
+		return (packedRow & ~(0xF << shift)) | (exponent << shift);
+	}
+}
@@ -32,21 +32,43 @@ public class Board implements Cloneable
 	 */
 	private int[][]			boardArray;
 	/**
-	 * Random Generator which is used in the creation of random cells
+	 * Source of the random choices of the new cells
 	 */
-	private final Random	randomGenerator;
+	private final SpawnSource	spawnSource;
 	/**
 	 * Number of empty cells
 	 */
 	private Integer			emptyCells			= null;
 
 	/**
-	 * Constructor that initializes the board randomly.
+	 * Constructor that initializes the board randomly, with a spawn source seeded differently from every other board.
 	 */
 	public Board()
+	{
+		this(new SplittableSpawnSource());
+	}
+
+	/**
+	 * Constructor that initializes the board randomly from the given generator, which also places every new cell of the game.
+	 *
+	 * @param randomGenerator
+	 *            random generator of the new cells
+	 */
+	public Board(Random randomGenerator)
+	{
+		this(new RandomSpawnSource(randomGenerator));
+	}
+
+	/**
+	 * Constructor that initializes the board randomly from the given spawn source, which also places every new cell of the game.
+	 *
+	 * @param spawnSource
+	 *            source of the new cells
+	 */
+	public Board(SpawnSource spawnSource)
 	{
 		boardArray = new int[BOARD_SIZE][BOARD_SIZE];
-		randomGenerator = new Random(System.currentTimeMillis());
+		this.spawnSource = spawnSource;
 		addRandomCell();
 		addRandomCell();
 	}
@@ -59,10 +81,25 @@ public class Board implements Cloneable
 	 */
 	public Board(int newBoard[][])
 	{
-		randomGenerator = new Random(System.currentTimeMillis());
+		spawnSource = new SplittableSpawnSource();
 		boardArray = newBoard;
 	}
 
+	/**
+	 * Constructor that initializes the board from a packed {@link BitBoard}.
+	 * 
+	 * @param bitBoard
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 */
+	public Board(long bitBoard, int score)
+	{
+		spawnSource = new SplittableSpawnSource();
+		boardArray = BitBoard.toArray(bitBoard);
+		this.score = score;
+	}
+
 	/**
 	 * Deep clone
 	 * 
@@ -98,14 +135,40 @@ public class Board implements Cloneable
 		return clone2dArray(boardArray);
 	}
 
+	/**
+	 * Returns the board packed as a {@link BitBoard}.
+	 * 
+	 * @return packed board
+	 */
+	public long toBitBoard()
+	{
+		return BitBoard.fromArray(boardArray);
+	}
+
+	/**
+	 * Returns the source of the new cells
+	 * 
+	 * @return spawn source
+	 */
+	public SpawnSource getSpawnSource()
+	{
+		return spawnSource;
+	}
+
 	/**
 	 * Returns the RandomGenerator field
 	 * 
-	 * @return random generator
+	 * @return random generator of a board created with one
+	 * @throws IllegalStateException
+	 *             if the new cells do not come from a {@link Random}
+	 * @deprecated the new cells come from a {@link SpawnSource}, use {@link #getSpawnSource()}
 	 */
+	@Deprecated
 	public Random getRandomGenerator()
 	{
-		return randomGenerator;
+		if (!(spawnSource instanceof RandomSpawnSource))
+			throw new IllegalStateException("The new cells do not come from a random generator");
+		return ((RandomSpawnSource) spawnSource).getRandomGenerator();
 	}
 
 	/**
@@ -161,6 +224,7 @@ public class Board implements Cloneable
 			}
 		}
 		score += points;
+		emptyCells = null;
 		if (direction == DirectionStatus.UP)
 			rotateRight();
 		else if (direction == DirectionStatus.RIGHT)
@@ -216,6 +280,24 @@ public class Board implements Cloneable
 		return false;
 	}
 
+	/**
+	 * Returns the moves that change the board, with bit {@link DirectionStatus#getCode()} set for each of them. A move changes the board when a tile has an empty cell
+	 * or an equal tile next to it in that direction, so the board is scanned once without copying it or performing any move.
+	 * 
+	 * @return mask of legal moves, 0 if no move is possible
+	 */
+	public int legalMoveMask()
+	{
+		int mask = 0;
+		for (int i = 0; i < BOARD_SIZE; ++i)
+			for (int j = 0; j + 1 < BOARD_SIZE; ++j)
+			{
+				mask |= pairMoves(boardArray[i][j], boardArray[i][j + 1], DirectionStatus.LEFT, DirectionStatus.RIGHT);
+				mask |= pairMoves(boardArray[j][i], boardArray[j + 1][i], DirectionStatus.UP, DirectionStatus.DOWN);
+			}
+		return mask;
+	}
+
 	/**
 	 * Checks whether the game is terminated
 	 * 
@@ -225,19 +307,9 @@ public class Board implements Cloneable
 	 */
 	public boolean isGameTerminated() throws CloneNotSupportedException
 	{
-		boolean terminated = false;
-		if (hasWon() == true)
-			terminated = true;
-		else
-		{
-			if (getNumberOfEmptyCells() == 0)
-			{
-				Board copyBoard = (Board) this.clone();
-				if (copyBoard.move(DirectionStatus.UP) == 0 && copyBoard.move(DirectionStatus.RIGHT) == 0 && copyBoard.move(DirectionStatus.DOWN) == 0 && copyBoard.move(DirectionStatus.LEFT) == 0)
-					terminated = true;
-			}
-		}
-		return terminated;
+		if (hasWon())
+			return true;
+		return getNumberOfEmptyCells() == 0 && legalMoveMask() == 0;
 	}
 
 	/**
@@ -252,12 +324,13 @@ public class Board implements Cloneable
 	public ActionStatus action(DirectionStatus direction) throws CloneNotSupportedException
 	{
 		ActionStatus result = ActionStatus.CONTINUE;
-		int[][] currBoardArray = getBoardArray();
-		int newPoints = move(direction);
-		int[][] newBoardArray = getBoardArray();
+		int newPoints = 0;
 		boolean newCellAdded = false;
-		if (!isEqual(currBoardArray, newBoardArray))
+		if ((legalMoveMask() & (1 << direction.getCode())) != 0)
+		{
+			newPoints = move(direction);
 			newCellAdded = addRandomCell();
+		}
 		if (newPoints == 0 && newCellAdded == false)
 		{
 			if (isGameTerminated())
@@ -297,6 +370,30 @@ public class Board implements Cloneable
 		}
 	}
 
+	/**
+	 * Returns the moves that two neighboring cells allow.
+	 * 
+	 * @param first
+	 *            value of the cell on the left or above
+	 * @param second
+	 *            value of the cell on the right or below
+	 * @param towardsFirst
+	 *            move towards the first cell
+	 * @param towardsSecond
+	 *            move towards the second cell
+	 * @return mask of the moves
+	 */
+	private static int pairMoves(int first, int second, DirectionStatus towardsFirst, DirectionStatus towardsSecond)
+	{
+		if (first == second)
+			return first == 0 ? 0 : (1 << towardsFirst.getCode()) | (1 << towardsSecond.getCode());
+		if (first == 0)
+			return 1 << towardsFirst.getCode();
+		if (second == 0)
+			return 1 << towardsSecond.getCode();
+		return 0;
+	}
+
 	/**
 	 * Rotates the board on the left
 	 */
@@ -332,8 +429,8 @@ public class Board implements Cloneable
 		int listSize = emptyCells.size();
 		if (listSize == 0)
 			return false;
-		int randomCellId = emptyCells.get(randomGenerator.nextInt(listSize));
-		int randomValue = (randomGenerator.nextDouble() < 0.9) ? 2 : 4;
+		int randomCellId = emptyCells.get(spawnSource.nextCell(listSize));
+		int randomValue = spawnSource.nextIsFour() ? 4 : 2;
 		int i = randomCellId / BOARD_SIZE;
 		int j = randomCellId % BOARD_SIZE;
 		setEmptyCell(i, j, randomValue);
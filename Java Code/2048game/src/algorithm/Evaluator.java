@@ -0,0 +1,172 @@
+package algorithm;
+
+/**
+ * Heuristic score of a {@link BitBoard}, read from tables over the 65536 possible rows. The monotonicity, the merges, the empty cells and the max value of every row are
+ * computed once, and a board is scored by looking up its 4 rows and its 4 columns.
+ * <p>
+ * The score is the one the searches always used: the monotonicity penalty, plus the number of empty cells, plus the merge score, plus the max value, and at least 1
+ * once some points were scored.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public final class Evaluator
+{
+	/**
+	 * Number of possible rows
+	 */
+	private static final int		ROW_COUNT	= 1 << 16;
+
+	/**
+	 * Base 2 logarithm of the value of every exponent, 0 for an empty cell, computed as the monotonicity heuristic always has
+	 */
+	private static final double[]	LOG2		= new double[BitBoard.MAX_EXPONENT + 1];
+
+	/**
+	 * Monotonicity penalty of the steps of a line going down from its first cell to its last one, indexed by packed row
+	 */
+	private static final double[]	DECREASING	= new double[ROW_COUNT];
+
+	/**
+	 * Monotonicity penalty of the steps of a line going up from its first cell to its last one, indexed by packed row
+	 */
+	private static final double[]	INCREASING	= new double[ROW_COUNT];
+
+	/**
+	 * Number of pairs of equal adjacent tiles of a line, indexed by packed row
+	 */
+	private static final byte[]		MERGES		= new byte[ROW_COUNT];
+
+	/**
+	 * Number of pairs of equal adjacent tiles of a line, the pairs holding one of its first two cells counting twice, indexed by packed row
+	 */
+	private static final byte[]		INNER_MERGES	= new byte[ROW_COUNT];
+
+	/**
+	 * Number of empty cells of a line, indexed by packed row
+	 */
+	private static final byte[]		EMPTY_CELLS	= new byte[ROW_COUNT];
+
+	/**
+	 * Largest exponent of a line, indexed by packed row
+	 */
+	private static final byte[]		MAX_EXPONENT	= new byte[ROW_COUNT];
+
+	/**
+	 * Largest sum of the empty cells and of the merge score of a board
+	 */
+	private static final int		MAX_BONUS;
+
+	static
+	{
+		for (int exponent = 1; exponent <= BitBoard.MAX_EXPONENT; ++exponent)
+			LOG2[exponent] = Math.log(BitBoard.toValue(exponent)) / Math.log(2);
+		int[] line = new int[Board.BOARD_SIZE];
+		for (int row = 0; row < ROW_COUNT; ++row)
+		{
+			for (int j = 0; j < Board.BOARD_SIZE; ++j)
+				line[j] = (row >>> (4 * j)) & 0xF;
+			double decreasing = 0;
+			double increasing = 0;
+			int current = 0;
+			int next = current + 1;
+			while (next < Board.BOARD_SIZE)
+			{
+				while (next < Board.BOARD_SIZE && line[next] == 0)
+					next++;
+				if (next >= Board.BOARD_SIZE)
+					next--;
+				double currentValue = LOG2[line[current]];
+				double nextValue = LOG2[line[next]];
+				if (currentValue > nextValue)
+					decreasing += nextValue - currentValue;
+				else if (nextValue > currentValue)
+					increasing += currentValue - nextValue;
+				current = next;
+				next++;
+			}
+			DECREASING[row] = decreasing;
+			INCREASING[row] = increasing;
+			int merges = 0;
+			int innerMerges = 0;
+			int emptyCells = 0;
+			int maxExponent = 0;
+			for (int j = 0; j < Board.BOARD_SIZE; ++j)
+			{
+				if (line[j] == 0)
+					emptyCells++;
+				maxExponent = Math.max(maxExponent, line[j]);
+				if (j < Board.BOARD_SIZE - 1 && line[j] != 0 && line[j] == line[j + 1])
+				{
+					merges++;
+					if (j < Board.BOARD_SIZE - 2)
+						innerMerges++;
+				}
+			}
+			MERGES[row] = (byte) merges;
+			INNER_MERGES[row] = (byte) (merges + innerMerges);
+			EMPTY_CELLS[row] = (byte) emptyCells;
+			MAX_EXPONENT[row] = (byte) maxExponent;
+		}
+		int maxMerges = 0;
+		int maxInnerMerges = 0;
+		for (int row = 0; row < ROW_COUNT; ++row)
+		{
+			maxMerges = Math.max(maxMerges, MERGES[row]);
+			maxInnerMerges = Math.max(maxInnerMerges, INNER_MERGES[row]);
+		}
+		// the lines heuristicScore adds: five with inner merges, two without
+		MAX_BONUS = BitBoard.CELL_COUNT + 5 * maxInnerMerges + 2 * maxMerges;
+	}
+
+	/**
+	 * Not instantiable.
+	 */
+	private Evaluator()
+	{
+	}
+
+	/**
+	 * Estimates a heuristic score by taking into account the real score, the number of empty cells and the clustering score of the board.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param actualScore
+	 *            actual score
+	 * @return heuristic score
+	 */
+	public static int heuristicScore(long board, int actualScore)
+	{
+		long transposed = BitBoard.transpose(board);
+		int row0 = BitBoard.getRow(board, 0);
+		int row1 = BitBoard.getRow(board, 1);
+		int row2 = BitBoard.getRow(board, 2);
+		int row3 = BitBoard.getRow(board, 3);
+		int column0 = BitBoard.getRow(transposed, 0);
+		int column1 = BitBoard.getRow(transposed, 1);
+		int column2 = BitBoard.getRow(transposed, 2);
+		int column3 = BitBoard.getRow(transposed, 3);
+		double monotonicity = Math.max(DECREASING[row0] + DECREASING[row1] + DECREASING[row2] + DECREASING[row3],
+				INCREASING[row0] + INCREASING[row1] + INCREASING[row2] + INCREASING[row3])
+				+ Math.max(DECREASING[column0] + DECREASING[column1] + DECREASING[column2] + DECREASING[column3],
+						INCREASING[column0] + INCREASING[column1] + INCREASING[column2] + INCREASING[column3]);
+		// a cell counts its right and lower neighbours, then its left and upper ones, and stops at the first one off the board
+		int mergeScore = INNER_MERGES[row0] + INNER_MERGES[row1] + INNER_MERGES[row2] + MERGES[row3] + MERGES[column0] + INNER_MERGES[column1] + INNER_MERGES[column2];
+		int emptyCells = EMPTY_CELLS[row0] + EMPTY_CELLS[row1] + EMPTY_CELLS[row2] + EMPTY_CELLS[row3];
+		int maxExponent = Math.max(Math.max(MAX_EXPONENT[row0], MAX_EXPONENT[row1]), Math.max(MAX_EXPONENT[row2], MAX_EXPONENT[row3]));
+		int score = (int) (monotonicity + emptyCells + mergeScore + BitBoard.toValue(maxExponent));
+		return Math.max(score, Math.min(actualScore, 1));
+	}
+
+	/**
+	 * Returns an upper bound of the heuristic score of the boards whose largest tile is at most a given one. The monotonicity is a penalty, never positive, and the
+	 * other terms but the max value are bounded. The heuristic score is never negative, so 0 is a lower bound.
+	 *
+	 * @param maxExponent
+	 *            exponent of the largest tile
+	 * @return upper bound of the heuristic score
+	 */
+	public static int maxHeuristicScore(int maxExponent)
+	{
+		return BitBoard.toValue(Math.min(maxExponent, BitBoard.MAX_EXPONENT)) + MAX_BONUS;
+	}
+}
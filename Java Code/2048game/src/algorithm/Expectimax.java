@@ -0,0 +1,498 @@
+package algorithm;
+
+import algorithm.NextMove.ChancePruning;
+import algorithm.NextMove.Player;
+import algorithm.TranspositionTable.Bound;
+
+/**
+ * Estimates the next move with the Expectimax algorithm. The computer player is a chance node: every empty cell is equally likely and receives a 2 with probability
+ * 0.9 and a 4 with probability 0.1, the same odds the {@link Board} uses. The search runs on {@link BitBoard} values, one instance per searching thread.
+ * <p>
+ * With a probability cutoff, a user node whose probability of being reached from the root, the product of the odds of the new tiles on its path, falls below the cutoff
+ * is evaluated by the heuristic instead of searched. The values of the nodes above then depend on the path that reached them, and the transposition table keeps them as
+ * any other value: with a cutoff, a search may depend on the searches that filled the table before it, and a parallel search on the number of threads.
+ * <p>
+ * With {@link ChancePruning}, the search carries an alpha-beta window and the computer nodes are pruned by Ballard's Star1. The values of the leaves lie between 0
+ * and a bound of the heuristic given by the largest tile the remaining moves can make, or the value of a win once they can reach the target. Only the values inside
+ * their window are exact, and only those go to the transposition table.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public class Expectimax
+{
+	/**
+	 * Value of a won game
+	 */
+	public static final double	WIN_SCORE		= Integer.MAX_VALUE;
+
+	/**
+	 * Node counter and budget of the current search
+	 */
+	private SearchBudget		budget			= new SearchBudget();
+
+	/**
+	 * Statistics of the current search, null if they are not collected
+	 */
+	private SearchStatistics	statistics;
+
+	/**
+	 * Number of user nodes looked up in the transposition table in the current search
+	 */
+	private long				tableProbes;
+
+	/**
+	 * Number of user nodes answered by the transposition table in the current search
+	 */
+	private long				tableHits;
+
+	/**
+	 * Number of user nodes evaluated by the heuristic because of the probability cutoff in the current search
+	 */
+	private long				probabilityCutoffs;
+
+	/**
+	 * Probability of being reached below which a user node is evaluated by the heuristic, 0 for none
+	 */
+	private double				probabilityCutoff;
+
+	/**
+	 * Pruning of the computer nodes
+	 */
+	private ChancePruning		chancePruning	= ChancePruning.NONE;
+
+	/**
+	 * Transposition table of the user nodes, keyed by the raw packed board, null if none. The heuristic is not symmetric, so the rotations and reflections of a board
+	 * do not share an entry. Only entries of the same depth are used, so without a probability cutoff a value does not depend on which searches filled the table before,
+	 * nor on the order in which parallel searches fill it.
+	 */
+	private TranspositionTable	transpositionTable;
+
+	/**
+	 * Constructor of a search without a transposition table.
+	 */
+	public Expectimax()
+	{
+		this(null);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param transpositionTable
+	 *            transposition table of the user nodes, may be shared with other searches, null if none
+	 */
+	public Expectimax(TranspositionTable transpositionTable)
+	{
+		this.transpositionTable = transpositionTable;
+	}
+
+	/**
+	 * Finds the best next move.
+	 *
+	 * @param theBoard
+	 *            game board
+	 * @param depth
+	 *            depth of tree to be searched, counting both the user and the computer layers
+	 * @return search result
+	 */
+	public SearchResult search(Board theBoard, int depth)
+	{
+		return search(theBoard.toBitBoard(), theBoard.getScore(), depth);
+	}
+
+	/**
+	 * Finds the best next move.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 * @param depth
+	 *            depth of tree to be searched, counting both the user and the computer layers
+	 * @return search result
+	 */
+	public SearchResult search(long board, int score, int depth)
+	{
+		return search(board, score, depth, new SearchBudget(), null);
+	}
+
+	/**
+	 * Finds the best next move within a budget.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 * @param depth
+	 *            depth of tree to be searched, counting both the user and the computer layers
+	 * @param searchBudget
+	 *            node counter and budget, shared by the iterations of an iterative deepening search
+	 * @param firstDirection
+	 *            direction searched first, null for the natural order
+	 * @return search result, to be discarded if the budget is spent
+	 */
+	SearchResult search(long board, int score, int depth, SearchBudget searchBudget, DirectionStatus firstDirection)
+	{
+		long start = System.nanoTime();
+		long startNodes = searchBudget.getNodes();
+		budget = searchBudget;
+		statistics = searchBudget.getStatistics();
+		budget.countNode(depth);
+		tableProbes = 0;
+		tableHits = 0;
+		probabilityCutoffs = 0;
+		DirectionStatus bestDirection = null;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		if (depth > 0 && !BitBoard.isGameTerminated(board, score))
+		{
+			int legalMoves = BitBoard.legalMoveMask(board);
+			for (DirectionStatus direction : NextMove.orderedDirections(firstDirection))
+			{
+				if (!BitBoard.isLegal(legalMoves, direction))
+					continue;
+				long newBoard = BitBoard.move(board, direction);
+				// a move that cannot beat the best one only needs a bound
+				double value = expectimax(newBoard, score + BitBoard.moveScore(board, direction), depth - 1, Player.COMPUTER, 1, bestValue, Double.POSITIVE_INFINITY);
+				if (budget.isExhausted())
+					break;
+				if (value > bestValue)
+				{
+					bestValue = value;
+					bestDirection = direction;
+				}
+			}
+		}
+		if (bestDirection == null)
+			bestValue = staticValue(board, score);
+		return new SearchResult(bestDirection, bestValue, depth, budget.getNodes() - startNodes, System.nanoTime() - start);
+	}
+
+	/**
+	 * Returns the number of nodes visited by the last search, every iteration included.
+	 *
+	 * @return nodes
+	 */
+	public long getNodes()
+	{
+		return budget.getNodes();
+	}
+
+	/**
+	 * Evaluates by the heuristic the user nodes less likely to be reached than a cutoff, a new 2 weighing 0.9 and a new 4 weighing 0.1 divided by the number of empty
+	 * cells.
+	 *
+	 * @param probabilityCutoff
+	 *            probability of being reached below which a user node is not searched, 0 for none
+	 */
+	public void setProbabilityCutoff(double probabilityCutoff)
+	{
+		this.probabilityCutoff = probabilityCutoff;
+	}
+
+	/**
+	 * Prunes the computer nodes by Star1: the heuristic bounds the values, so the new tiles left once the others settle the expectation against the window need not be
+	 * searched. The root value is that of the search without pruning up to the float rounding of the transposition table, which keeps fewer entries when pruning, so a
+	 * near tie may choose another move and games played with pruning may diverge from those played without.
+	 *
+	 * @param chancePruning
+	 *            pruning of the computer nodes, NONE for none
+	 */
+	public void setChancePruning(ChancePruning chancePruning)
+	{
+		this.chancePruning = chancePruning;
+	}
+
+	/**
+	 * Returns the number of user nodes evaluated by the heuristic because of the probability cutoff in the last search.
+	 *
+	 * @return probability cutoffs
+	 */
+	public long getProbabilityCutoffs()
+	{
+		return probabilityCutoffs;
+	}
+
+	/**
+	 * Returns the number of user nodes looked up in the transposition table in the last search.
+	 *
+	 * @return transposition table probes
+	 */
+	public long getTableProbes()
+	{
+		return tableProbes;
+	}
+
+	/**
+	 * Returns the number of user nodes answered by the transposition table in the last search.
+	 *
+	 * @return transposition table hits
+	 */
+	public long getTableHits()
+	{
+		return tableHits;
+	}
+
+	/**
+	 * Expected value of a node, within a budget.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 * @param depth
+	 *            remaining depth
+	 * @param player
+	 *            player to move
+	 * @param probability
+	 *            probability of the node being reached from the root
+	 * @param searchBudget
+	 *            node counter and budget, the value is meaningless once it is spent
+	 * @return expected value
+	 */
+	double expectimax(long board, int score, int depth, Player player, double probability, SearchBudget searchBudget)
+	{
+		budget = searchBudget;
+		statistics = searchBudget.getStatistics();
+		return expectimax(board, score, depth, player, probability);
+	}
+
+	/**
+	 * Expected value of a node, searched with a window when the computer nodes are pruned. A value at most alpha is an upper bound of the real value, a value at least
+	 * beta a lower bound, and a value in between is exact; without pruning every value is exact.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 * @param depth
+	 *            remaining depth
+	 * @param player
+	 *            player to move
+	 * @param probability
+	 *            probability of the node being reached from the root
+	 * @param alpha
+	 *            lower end of the window
+	 * @param beta
+	 *            upper end of the window
+	 * @return expected value
+	 */
+	private double expectimax(long board, int score, int depth, Player player, double probability, double alpha, double beta)
+	{
+		if (budget.countNode(depth))
+			return 0;
+		if (BitBoard.isGameTerminated(board, score))
+		{
+			if (statistics != null)
+				statistics.countTerminal();
+			return terminalValue(board, score);
+		}
+		if (depth == 0)
+			return Evaluator.heuristicScore(board, score);
+		if (player == Player.USER)
+		{
+			if (probability < probabilityCutoff)
+			{
+				++probabilityCutoffs;
+				if (statistics != null)
+					statistics.countProbabilityCutoff();
+				return Evaluator.heuristicScore(board, score);
+			}
+			if (transpositionTable != null)
+			{
+				++tableProbes;
+				long entry = transpositionTable.probe(board);
+				boolean hit = entry != TranspositionTable.MISS && TranspositionTable.getDepth(entry) == depth && TranspositionTable.getBound(entry) == Bound.EXACT;
+				if (statistics != null)
+					statistics.countTableProbe(hit);
+				if (hit)
+				{
+					++tableHits;
+					return TranspositionTable.getValue(entry);
+				}
+			}
+			DirectionStatus bestDirection = null;
+			double bestValue = Double.NEGATIVE_INFINITY;
+			int legalMoves = BitBoard.legalMoveMask(board);
+			for (DirectionStatus direction : DirectionStatus.values())
+			{
+				if (!BitBoard.isLegal(legalMoves, direction))
+					continue;
+				long newBoard = BitBoard.move(board, direction);
+				double value = expectimax(newBoard, score + BitBoard.moveScore(board, direction), depth - 1, Player.COMPUTER, probability, Math.max(alpha, bestValue),
+						beta);
+				if (value > bestValue)
+				{
+					bestValue = value;
+					bestDirection = direction;
+				}
+				if (bestValue >= beta)
+				{
+					if (statistics != null)
+						statistics.countBetaCutoff();
+					break;
+				}
+			}
+			// only exact values are kept, the table never holds a bound
+			if (transpositionTable != null && !budget.isExhausted() && bestValue > alpha && bestValue < beta)
+			{
+				// the table keeps floats, return what a later hit would return
+				bestValue = (float) bestValue;
+				transpositionTable.store(board, depth, bestValue, Bound.EXACT, bestDirection);
+			}
+			return bestValue;
+		}
+		int emptyCells = BitBoard.emptyCellMask(board);
+		int numberOfEmptyCells = Integer.bitCount(emptyCells);
+		if (numberOfEmptyCells == 0)
+			return Evaluator.heuristicScore(board, score);
+		if (chancePruning != ChancePruning.NONE)
+			return prunedChance(board, score, depth, probability, alpha, beta);
+		double total = 0;
+		double cellProbability = probability / numberOfEmptyCells;
+		while (emptyCells != 0)
+		{
+			int cellId = Integer.numberOfTrailingZeros(emptyCells);
+			emptyCells &= emptyCells - 1;
+			total += SpawnSource.PROBABILITY_OF_TWO
+					* expectimax(BitBoard.setExponent(board, cellId, 1), score, depth - 1, Player.USER, cellProbability * SpawnSource.PROBABILITY_OF_TWO);
+			total += SpawnSource.PROBABILITY_OF_FOUR
+					* expectimax(BitBoard.setExponent(board, cellId, 2), score, depth - 1, Player.USER, cellProbability * SpawnSource.PROBABILITY_OF_FOUR);
+		}
+		return total / numberOfEmptyCells;
+	}
+
+	/**
+	 * Exact expected value of a node.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 * @param depth
+	 *            remaining depth
+	 * @param player
+	 *            player to move
+	 * @param probability
+	 *            probability of the node being reached from the root
+	 * @return expected value
+	 */
+	private double expectimax(long board, int score, int depth, Player player, double probability)
+	{
+		return expectimax(board, score, depth, player, probability, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Expected value of a computer node with empty cells by Star1. Every new tile is searched with the window that, given the tiles already searched and the bounds of
+	 * the heuristic for the others, would settle the node: once the expectation can no longer rise above alpha or fall below beta, the remaining tiles are cut.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 * @param depth
+	 *            remaining depth, positive
+	 * @param probability
+	 *            probability of the node being reached from the root
+	 * @param alpha
+	 *            lower end of the window
+	 * @param beta
+	 *            upper end of the window
+	 * @return expected value, or a bound of it outside the window
+	 */
+	private double prunedChance(long board, int score, int depth, double probability, double alpha, double beta)
+	{
+		int emptyCells = BitBoard.emptyCellMask(board);
+		int numberOfEmptyCells = Integer.bitCount(emptyCells);
+		double upper = upperBound(board, depth);
+		double cellProbability = probability / numberOfEmptyCells;
+		// the weights of the tiles of a cell add up to 1, so the window of the sum is the window of the node times the number of cells
+		double alphaTotal = alpha * numberOfEmptyCells;
+		double betaTotal = beta * numberOfEmptyCells;
+		double total = 0;
+		int remainingCells = numberOfEmptyCells;
+		while (emptyCells != 0)
+		{
+			int cellId = Integer.numberOfTrailingZeros(emptyCells);
+			emptyCells &= emptyCells - 1;
+			--remainingCells;
+			for (int tile = 0; tile < 2; ++tile)
+			{
+				double weight = tile == 0 ? SpawnSource.PROBABILITY_OF_TWO : SpawnSource.PROBABILITY_OF_FOUR;
+				double remaining = remainingCells + (tile == 0 ? SpawnSource.PROBABILITY_OF_FOUR : 0);
+				// the tiles not searched yet are worth at least 0 and at most the upper bound
+				double tileAlpha = (alphaTotal - total - remaining * upper) / weight;
+				double tileBeta = (betaTotal - total) / weight;
+				double value = expectimax(BitBoard.setExponent(board, cellId, tile + 1), score, depth - 1, Player.USER, cellProbability * weight, Math.max(tileAlpha, 0),
+						Math.min(tileBeta, upper));
+				total += weight * value;
+				if (value <= tileAlpha)
+				{
+					if (statistics != null)
+						statistics.countAlphaCutoff();
+					return (total + remaining * upper) / numberOfEmptyCells;
+				}
+				if (value >= tileBeta)
+				{
+					if (statistics != null)
+						statistics.countChanceBetaCutoff();
+					return total / numberOfEmptyCells;
+				}
+			}
+		}
+		return total / numberOfEmptyCells;
+	}
+
+	/**
+	 * Upper bound of the values of the tiles of a computer node. Every move raises the largest tile by at most one exponent, and no tile outgrows the sum of the tiles
+	 * with the new ones, so unless the remaining moves can make the target tile the heuristic bounds every leaf; otherwise a win bounds it.
+	 *
+	 * @param board
+	 *            packed board after the move
+	 * @param depth
+	 *            remaining depth of the computer node
+	 * @return upper bound
+	 */
+	private static double upperBound(long board, int depth)
+	{
+		// the user moves depth / 2 times and (depth + 1) / 2 new tiles of at most 4 come
+		int sum = 4 * ((depth + 1) / 2);
+		for (int cellId = 0; cellId < BitBoard.CELL_COUNT; ++cellId)
+			sum += BitBoard.getValue(board, cellId);
+		int maxExponent = Math.min(Math.max(BitBoard.maxExponent(board), 2) + depth / 2, 31 - Integer.numberOfLeadingZeros(sum));
+		if (maxExponent >= BitBoard.TARGET_EXPONENT)
+			return WIN_SCORE;
+		return Evaluator.maxHeuristicScore(maxExponent);
+	}
+
+	/**
+	 * Value of a board without search, the same scale as the Alpha-Beta pruning uses.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 * @return value
+	 */
+	static double staticValue(long board, int score)
+	{
+		if (BitBoard.isGameTerminated(board, score))
+			return terminalValue(board, score);
+		return Evaluator.heuristicScore(board, score);
+	}
+
+	/**
+	 * Value of a terminated game, the same scale as the Alpha-Beta pruning uses.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 * @return value
+	 */
+	private static double terminalValue(long board, int score)
+	{
+		if (BitBoard.hasWon(board, score))
+			return WIN_SCORE;
+		return Math.min(score, 1);
+	}
+}
@@ -0,0 +1,207 @@
+package algorithm;
+
+import algorithm.NextMove.Player;
+
+/**
+ * Estimates the next move with the Alpha-Beta pruning algorithm, the computer player placing the worst tile for the user. The search runs on {@link BitBoard} values
+ * and returns its scores as primitives, so it allocates nothing per node. One instance per searching thread.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public class Minimax
+{
+	/**
+	 * Value of a won game
+	 */
+	public static final int		WIN_SCORE	= Integer.MAX_VALUE;
+
+	/**
+	 * Node counter and budget of the current search
+	 */
+	private SearchBudget		budget		= new SearchBudget();
+
+	/**
+	 * Statistics of the current search, null if they are not collected
+	 */
+	private SearchStatistics	statistics;
+
+	/**
+	 * Best direction of the last user node searched, that of the root once a search returns
+	 */
+	private DirectionStatus		bestDirection;
+
+	/**
+	 * Finds the best next move.
+	 *
+	 * @param theBoard
+	 *            game board
+	 * @param depth
+	 *            depth of tree to be searched, counting both the user and the computer layers
+	 * @return search result
+	 */
+	public SearchResult search(Board theBoard, int depth)
+	{
+		return search(theBoard.toBitBoard(), theBoard.getScore(), depth);
+	}
+
+	/**
+	 * Finds the best next move.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 * @param depth
+	 *            depth of tree to be searched, counting both the user and the computer layers
+	 * @return search result
+	 */
+	public SearchResult search(long board, int score, int depth)
+	{
+		return search(board, score, depth, new SearchBudget(), null);
+	}
+
+	/**
+	 * Finds the best next move within a budget.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 * @param depth
+	 *            depth of tree to be searched, counting both the user and the computer layers
+	 * @param searchBudget
+	 *            node counter and budget, shared by the iterations of an iterative deepening search
+	 * @param firstDirection
+	 *            direction searched first, null for the natural order
+	 * @return search result, to be discarded if the budget is spent
+	 */
+	SearchResult search(long board, int score, int depth, SearchBudget searchBudget, DirectionStatus firstDirection)
+	{
+		long start = System.nanoTime();
+		long startNodes = searchBudget.getNodes();
+		budget = searchBudget;
+		statistics = searchBudget.getStatistics();
+		bestDirection = null;
+		int value = alphaBeta(board, score, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, Player.USER, firstDirection);
+		return new SearchResult(bestDirection, value, depth, budget.getNodes() - startNodes, System.nanoTime() - start);
+	}
+
+	/**
+	 * Returns the number of nodes visited by the last search, every iteration included.
+	 *
+	 * @return nodes
+	 */
+	public long getNodes()
+	{
+		return budget.getNodes();
+	}
+
+	/**
+	 * Value of a node within an alpha-beta window and a budget.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 * @param depth
+	 *            remaining depth
+	 * @param alpha
+	 *            alpha value
+	 * @param beta
+	 *            beta value
+	 * @param player
+	 *            player to move
+	 * @param searchBudget
+	 *            node counter and budget, the value is meaningless once it is spent
+	 * @return value
+	 */
+	int value(long board, int score, int depth, int alpha, int beta, Player player, SearchBudget searchBudget)
+	{
+		budget = searchBudget;
+		statistics = searchBudget.getStatistics();
+		return alphaBeta(board, score, depth, alpha, beta, player, null);
+	}
+
+	/**
+	 * Value of a node within an alpha-beta window.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 * @param depth
+	 *            remaining depth
+	 * @param alpha
+	 *            alpha value
+	 * @param beta
+	 *            beta value
+	 * @param player
+	 *            player to move
+	 * @param firstDirection
+	 *            direction searched first by the user, null for the natural order
+	 * @return value
+	 */
+	private int alphaBeta(long board, int score, int depth, int alpha, int beta, Player player, DirectionStatus firstDirection)
+	{
+		if (budget.countNode(depth))
+			return 0;
+		if (BitBoard.isGameTerminated(board, score))
+		{
+			if (statistics != null)
+				statistics.countTerminal();
+			return BitBoard.hasWon(board, score) ? WIN_SCORE : Math.min(score, 1);
+		}
+		if (depth == 0)
+			return Evaluator.heuristicScore(board, score);
+		if (player == Player.USER)
+		{
+			DirectionStatus best = null;
+			int legalMoves = BitBoard.legalMoveMask(board);
+			for (DirectionStatus direction : NextMove.orderedDirections(firstDirection))
+			{
+				if (!BitBoard.isLegal(legalMoves, direction))
+					continue;
+				long newBoard = BitBoard.move(board, direction);
+				int value = alphaBeta(newBoard, score + BitBoard.moveScore(board, direction), depth - 1, alpha, beta, Player.COMPUTER, null);
+				if (value > alpha)
+				{
+					alpha = value;
+					best = direction;
+				}
+				if (beta <= alpha)
+				{
+					if (statistics != null)
+						statistics.countBetaCutoff();
+					break;
+				}
+				if (budget.isExhausted())
+					break;
+			}
+			bestDirection = best;
+			return alpha;
+		}
+		int emptyCells = BitBoard.emptyCellMask(board);
+		if (emptyCells == 0)
+			return 0;
+		while (emptyCells != 0)
+		{
+			int cellId = Integer.numberOfTrailingZeros(emptyCells);
+			emptyCells &= emptyCells - 1;
+			for (int exponent = 1; exponent <= 2; ++exponent)
+			{
+				int value = alphaBeta(BitBoard.setExponent(board, cellId, exponent), score, depth - 1, alpha, beta, Player.USER, null);
+				if (value < beta)
+					beta = value;
+				if (beta <= alpha)
+				{
+					if (statistics != null)
+						statistics.countAlphaCutoff();
+					return beta;
+				}
+				if (budget.isExhausted())
+					return beta;
+			}
+		}
+		return beta;
+	}
+}
@@ -0,0 +1,259 @@
+package algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import algorithm.NextMove.RolloutPolicy;
+
+/**
+ * Estimates the next move by pure Monte Carlo: every legal move of the root is followed by rollouts played to the end of the game with the rollout policy of the
+ * {@link SearchOptions}, and the move with the best mean final score is chosen. The rollouts are dealt round robin to the threads, every thread plays them on its own
+ * packed boards and counts its own sums, and every rollout draws from a random stream seeded by the board and its index, so the result does not depend on the number of
+ * threads unless the budget stops the rollouts. Every move of a rollout counts as a node, at its ply from the root.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+final class MonteCarlo
+{
+	/**
+	 * Threads of the Monte Carlo engines beyond the searching thread, daemons so they do not keep the application alive
+	 */
+	static final ExecutorService	EXECUTOR;
+
+	static
+	{
+		EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory()
+		{
+			@Override
+			public Thread newThread(Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, "rollouts");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Not instantiable.
+	 */
+	private MonteCarlo()
+	{
+	}
+
+	/**
+	 * Searches the best next move within a budget.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 * @param options
+	 *            search options, with the rollout count, policy and threads
+	 * @param budget
+	 *            node counter and budget
+	 * @return search result, the value being the mean final score of the rollouts of the best direction
+	 */
+	static SearchResult search(long board, int score, SearchOptions options, SearchBudget budget)
+	{
+		long start = System.nanoTime();
+		long startNodes = budget.getNodes();
+		budget.countNode(0);
+		int legalMoves = BitBoard.isGameTerminated(board, score) ? 0 : BitBoard.legalMoveMask(board);
+		DirectionStatus[] moves = new DirectionStatus[Integer.bitCount(legalMoves)];
+		int k = 0;
+		for (DirectionStatus direction : DirectionStatus.values())
+			if (BitBoard.isLegal(legalMoves, direction))
+				moves[k++] = direction;
+		if (moves.length == 0)
+			return new SearchResult(null, Expectimax.staticValue(board, score), 1, budget.getNodes() - startNodes, System.nanoTime() - start, budget.getStatistics(), 0);
+		long total = (long) Math.max(options.getRollouts(), 1) * moves.length;
+		int threads = (int) Math.max(Math.min(options.getRolloutThreads(), total), 1);
+		long seed = Rollout.mix(board ^ Rollout.mix(score));
+		Rollouts[] workers = new Rollouts[threads];
+		for (int t = 0; t < threads; ++t)
+			workers[t] = new Rollouts(board, score, moves, options.getRolloutPolicy(), seed, t, threads, total, budget.split(threads));
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 1; t < threads; ++t)
+			futures.add(EXECUTOR.submit(workers[t]));
+		workers[0].run();
+		boolean[] done = new boolean[threads];
+		done[0] = true;
+		try
+		{
+			for (int t = 1; t < threads; ++t)
+			{
+				futures.get(t - 1).get();
+				done[t] = true;
+			}
+		}
+		catch (InterruptedException e)
+		{
+			// stopped from outside, as the pondering does: keep the rollouts of the threads that finished
+			for (Future<?> future : futures)
+				future.cancel(true);
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e)
+		{
+			throw new IllegalStateException("Rollouts failed", e.getCause());
+		}
+		double[] sums = new double[moves.length];
+		long[] counts = new long[moves.length];
+		long rollouts = 0;
+		for (int t = 0; t < threads; ++t)
+			if (done[t])
+			{
+				budget.merge(workers[t].budget);
+				for (int m = 0; m < moves.length; ++m)
+				{
+					sums[m] += workers[t].sums[m];
+					counts[m] += workers[t].counts[m];
+					rollouts += workers[t].counts[m];
+				}
+			}
+		DirectionStatus bestDirection = null;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		for (int m = 0; m < moves.length; ++m)
+			if (counts[m] > 0 && sums[m] / counts[m] > bestValue)
+			{
+				bestValue = sums[m] / counts[m];
+				bestDirection = moves[m];
+			}
+		return new SearchResult(bestDirection, bestValue, 1, budget.getNodes() - startNodes, System.nanoTime() - start, budget.getStatistics(), rollouts);
+	}
+
+	/**
+	 * Rollouts of one thread: those whose index is the thread index modulo the number of threads, the first one of every root move always, the others while the budget
+	 * lasts.
+	 */
+	private static final class Rollouts implements Runnable
+	{
+		/**
+		 * Packed board of the root
+		 */
+		private final long				board;
+
+		/**
+		 * Score of the root
+		 */
+		private final int				score;
+
+		/**
+		 * Legal moves of the root
+		 */
+		private final DirectionStatus[]	moves;
+
+		/**
+		 * Player of the rollouts
+		 */
+		private final Rollout			player;
+
+		/**
+		 * Seed of the search
+		 */
+		private final long				seed;
+
+		/**
+		 * Index of the first rollout
+		 */
+		private final int				first;
+
+		/**
+		 * Distance between the indices of the rollouts
+		 */
+		private final int				stride;
+
+		/**
+		 * Number of rollouts of the search, every thread included
+		 */
+		private final long				total;
+
+		/**
+		 * Node counter and share of the budget
+		 */
+		private final SearchBudget		budget;
+
+		/**
+		 * Sum of the final scores after every root move
+		 */
+		private final double[]			sums;
+
+		/**
+		 * Number of rollouts after every root move
+		 */
+		private final long[]			counts;
+
+		/**
+		 * Constructor
+		 *
+		 * @param board
+		 *            packed board of the root
+		 * @param score
+		 *            score of the root
+		 * @param moves
+		 *            legal moves of the root
+		 * @param policy
+		 *            policy of the moves
+		 * @param seed
+		 *            seed of the search
+		 * @param first
+		 *            index of the first rollout
+		 * @param stride
+		 *            distance between the indices of the rollouts
+		 * @param total
+		 *            number of rollouts of the search
+		 * @param budget
+		 *            share of the budget
+		 */
+		Rollouts(long board, int score, DirectionStatus[] moves, RolloutPolicy policy, long seed, int first, int stride, long total, SearchBudget budget)
+		{
+			this.board = board;
+			this.score = score;
+			this.moves = moves;
+			player = new Rollout(policy);
+			this.seed = seed;
+			this.first = first;
+			this.stride = stride;
+			this.total = total;
+			this.budget = budget;
+			sums = new double[moves.length];
+			counts = new long[moves.length];
+		}
+
+		@Override
+		public void run()
+		{
+			for (long index = first; index < total; index += stride)
+			{
+				if (index >= moves.length && (budget.isExhausted() || Thread.currentThread().isInterrupted()))
+					break;
+				int m = (int) (index % moves.length);
+				sums[m] += rollout(index, moves[m]);
+				++counts[m];
+			}
+		}
+
+		/**
+		 * Plays one rollout to the end of the game.
+		 *
+		 * @param index
+		 *            index of the rollout, which seeds its random stream
+		 * @param direction
+		 *            root move
+		 * @return final score
+		 */
+		private int rollout(long index, DirectionStatus direction)
+		{
+			player.seed(Rollout.mix(seed + index * Rollout.GOLDEN_GAMMA));
+			int points = score + BitBoard.moveScore(board, direction);
+			long current = player.spawn(BitBoard.move(board, direction));
+			budget.countNode(-1);
+			return player.play(current, points, 1, budget);
+		}
+	}
+}
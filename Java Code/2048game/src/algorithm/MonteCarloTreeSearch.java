@@ -0,0 +1,503 @@
+package algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import algorithm.NextMove.RolloutPolicy;
+
+/**
+ * Estimates the next move by Monte Carlo Tree Search. The tree alternates user nodes, whose children are the legal moves chosen by UCT, and computer nodes, whose
+ * children are the new tiles sampled with the probabilities of the game and added when first drawn. Every iteration descends to a node not visited yet, plays a
+ * rollout from it with the policy of the {@link SearchOptions} and adds its final score to every node of the path; the most visited move of the root is chosen.
+ * <p>
+ * The nodes live in a pool of primitive arrays indexed by node, grown by doubling up to {@link #MAX_NODES}, beyond which the leaves are no longer expanded. The
+ * threads share the tree: descents and updates hold its lock, the rollouts do not, and a node on the path of a rollout in progress counts a virtual loss, a visit
+ * that scored nothing, so the other threads explore elsewhere meanwhile. With one thread the search is reproducible; with more it depends on their timing.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+final class MonteCarloTreeSearch
+{
+	/**
+	 * Largest number of nodes of a tree
+	 */
+	static final int				MAX_NODES			= 1 << 20;
+
+	/**
+	 * Number of nodes of a new tree
+	 */
+	private static final int		INITIAL_CAPACITY	= 1024;
+
+	/**
+	 * Index of no node
+	 */
+	private static final int		NONE				= -1;
+
+	/**
+	 * Move of a user node, which no move leads to within the tree
+	 */
+	private static final byte		USER				= -1;
+
+	/**
+	 * Index of the root
+	 */
+	private static final int		ROOT				= 0;
+
+	/**
+	 * Packed board of every node, after the move for a computer node
+	 */
+	private long[]					boards				= new long[INITIAL_CAPACITY];
+
+	/**
+	 * Score of every node
+	 */
+	private int[]					scores				= new int[INITIAL_CAPACITY];
+
+	/**
+	 * Code of the move leading to every computer node, {@link #USER} for a user node
+	 */
+	private byte[]					moves				= new byte[INITIAL_CAPACITY];
+
+	/**
+	 * Number of completed rollouts through every node
+	 */
+	private int[]					visits				= new int[INITIAL_CAPACITY];
+
+	/**
+	 * Number of rollouts in progress through every node
+	 */
+	private int[]					virtualLosses		= new int[INITIAL_CAPACITY];
+
+	/**
+	 * Sum of the final scores of the completed rollouts through every node
+	 */
+	private double[]				totals				= new double[INITIAL_CAPACITY];
+
+	/**
+	 * First child of every node, {@link #NONE} until it is expanded
+	 */
+	private int[]					firstChildren		= new int[INITIAL_CAPACITY];
+
+	/**
+	 * Next child of the parent of every node, {@link #NONE} for the last one
+	 */
+	private int[]					nextSiblings		= new int[INITIAL_CAPACITY];
+
+	/**
+	 * Number of nodes
+	 */
+	private int						size;
+
+	/**
+	 * Exploration constant of UCT, applied to values scaled by the mean of the parent
+	 */
+	private final double			exploration;
+
+	/**
+	 * Number of iterations after which the search stops, 0 for none
+	 */
+	private final int				maxIterations;
+
+	/**
+	 * Number of iterations started
+	 */
+	private int						iterations;
+
+	/**
+	 * Deepest ply of a node of the tree
+	 */
+	private int						depth;
+
+	/**
+	 * Constructor of an empty tree.
+	 *
+	 * @param exploration
+	 *            exploration constant of UCT
+	 * @param maxIterations
+	 *            number of iterations after which the search stops, 0 for none
+	 */
+	private MonteCarloTreeSearch(double exploration, int maxIterations)
+	{
+		this.exploration = exploration;
+		this.maxIterations = maxIterations;
+	}
+
+	/**
+	 * Searches the best next move within a budget. The search stops when the iterations of the options are played or the budget is spent, but not before every legal
+	 * move of the root has a completed rollout.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 * @param options
+	 *            search options, with the iterations, exploration, rollout policy and threads
+	 * @param budget
+	 *            node counter and budget
+	 * @return search result, the value being the mean final score of the rollouts of the best direction and the depth the deepest ply of the tree
+	 * @throws IllegalArgumentException
+	 *             if the options have neither a number of iterations nor a time or node budget, so the search would never stop
+	 */
+	static SearchResult search(long board, int score, SearchOptions options, SearchBudget budget)
+	{
+		if (options.getIterations() == 0 && options.getTimeBudgetMillis() <= 0 && options.getNodeBudget() <= 0)
+			throw new IllegalArgumentException("Unlimited iterations need a time or node budget");
+		long start = System.nanoTime();
+		long startNodes = budget.getNodes();
+		budget.countNode(0);
+		MonteCarloTreeSearch tree = new MonteCarloTreeSearch(options.getExploration(), options.getIterations());
+		tree.addNode(board, score, USER);
+		if (BitBoard.isGameTerminated(board, score) || !tree.expand(ROOT, 0, budget))
+			return new SearchResult(null, Expectimax.staticValue(board, score), 1, budget.getNodes() - startNodes, System.nanoTime() - start, budget.getStatistics(), 0);
+		int threads = Math.max(options.getRolloutThreads(), 1);
+		long seed = Rollout.mix(board ^ Rollout.mix(score));
+		Worker[] workers = new Worker[threads];
+		for (int t = 0; t < threads; ++t)
+			workers[t] = tree.new Worker(options.getRolloutPolicy(), Rollout.mix(seed + t * Rollout.GOLDEN_GAMMA), budget.split(threads));
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 1; t < threads; ++t)
+			futures.add(MonteCarlo.EXECUTOR.submit(workers[t]));
+		workers[0].run();
+		boolean[] done = new boolean[threads];
+		done[0] = true;
+		try
+		{
+			for (int t = 1; t < threads; ++t)
+			{
+				futures.get(t - 1).get();
+				done[t] = true;
+			}
+		}
+		catch (InterruptedException e)
+		{
+			// stopped from outside, as the pondering does: the tree holds the rollouts completed so far
+			for (Future<?> future : futures)
+				future.cancel(true);
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e)
+		{
+			throw new IllegalStateException("Tree search failed", e.getCause());
+		}
+		for (int t = 0; t < threads; ++t)
+			if (done[t])
+				budget.merge(workers[t].budget);
+		synchronized (tree)
+		{
+			int best = tree.bestChild();
+			return new SearchResult(DirectionStatus.values()[tree.moves[best]], tree.totals[best] / Math.max(tree.visits[best], 1), tree.depth,
+					budget.getNodes() - startNodes, System.nanoTime() - start, budget.getStatistics(), tree.visits[ROOT]);
+		}
+	}
+
+	/**
+	 * Returns the most visited child of the root, ties broken by the mean final score.
+	 *
+	 * @return index of the child
+	 */
+	private int bestChild()
+	{
+		int best = NONE;
+		for (int child = firstChildren[ROOT]; child != NONE; child = nextSiblings[child])
+			if (best == NONE || visits[child] > visits[best] || visits[child] == visits[best] && totals[child] > totals[best])
+				best = child;
+		return best;
+	}
+
+	/**
+	 * Adds a node to the pool, growing it if needed.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score
+	 * @param move
+	 *            code of the move leading to a computer node, {@link #USER} for a user node
+	 * @return index of the node, {@link #NONE} if the pool is full
+	 */
+	private int addNode(long board, int score, byte move)
+	{
+		if (size == MAX_NODES)
+			return NONE;
+		if (size == boards.length)
+		{
+			int capacity = Math.min(2 * size, MAX_NODES);
+			boards = Arrays.copyOf(boards, capacity);
+			scores = Arrays.copyOf(scores, capacity);
+			moves = Arrays.copyOf(moves, capacity);
+			visits = Arrays.copyOf(visits, capacity);
+			virtualLosses = Arrays.copyOf(virtualLosses, capacity);
+			totals = Arrays.copyOf(totals, capacity);
+			firstChildren = Arrays.copyOf(firstChildren, capacity);
+			nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+		}
+		int node = size++;
+		boards[node] = board;
+		scores[node] = score;
+		moves[node] = move;
+		firstChildren[node] = NONE;
+		nextSiblings[node] = NONE;
+		return node;
+	}
+
+	/**
+	 * Adds a child to a node, before the children it already has.
+	 *
+	 * @param parent
+	 *            parent node
+	 * @param board
+	 *            packed board of the child
+	 * @param score
+	 *            score of the child
+	 * @param move
+	 *            code of the move leading to a computer node, {@link #USER} for a user node
+	 * @return index of the child, {@link #NONE} if the pool is full
+	 */
+	private int addChild(int parent, long board, int score, byte move)
+	{
+		int child = addNode(board, score, move);
+		if (child != NONE)
+		{
+			nextSiblings[child] = firstChildren[parent];
+			firstChildren[parent] = child;
+		}
+		return child;
+	}
+
+	/**
+	 * Expands a user node with one child per legal move, in the order of the directions. Every move counts as a node.
+	 *
+	 * @param node
+	 *            user node with legal moves
+	 * @param ply
+	 *            ply of the node from the root
+	 * @param budget
+	 *            node counter
+	 * @return whether the node was expanded, false if the pool is full
+	 */
+	private boolean expand(int node, int ply, SearchBudget budget)
+	{
+		if (size + DirectionStatus.values().length > MAX_NODES)
+			return false;
+		int legalMoves = BitBoard.legalMoveMask(boards[node]);
+		DirectionStatus[] directions = DirectionStatus.values();
+		for (int k = directions.length - 1; k >= 0; --k)
+			if (BitBoard.isLegal(legalMoves, directions[k]))
+			{
+				addChild(node, BitBoard.move(boards[node], directions[k]), scores[node] + BitBoard.moveScore(boards[node], directions[k]), (byte) directions[k].getCode());
+				budget.countNode(-ply - 1);
+			}
+		depth = Math.max(depth, ply + 1);
+		return true;
+	}
+
+	/**
+	 * Chooses the child of a user node by UCT. A child without any rollout comes first; otherwise the mean final score, scaled by the mean of the node and counting
+	 * the rollouts in progress as scoring nothing, plus the exploration term is the largest.
+	 *
+	 * @param node
+	 *            expanded user node
+	 * @return index of the child
+	 */
+	private int select(int node)
+	{
+		double scale = visits[node] > 0 ? Math.max(totals[node] / visits[node], 1) : 1;
+		double logVisits = Math.log(Math.max(visits[node] + virtualLosses[node], 1));
+		int best = NONE;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		for (int child = firstChildren[node]; child != NONE; child = nextSiblings[child])
+		{
+			int n = visits[child] + virtualLosses[child];
+			if (n == 0)
+				return child;
+			double value = totals[child] / n / scale + exploration * Math.sqrt(logVisits / n);
+			if (value > bestValue)
+			{
+				bestValue = value;
+				best = child;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the child of a computer node holding a board, adding it if it is not there.
+	 *
+	 * @param node
+	 *            computer node
+	 * @param board
+	 *            packed board after the new tile
+	 * @param ply
+	 *            ply of the child from the root
+	 * @return index of the child, {@link #NONE} if the pool is full
+	 */
+	private int outcome(int node, long board, int ply)
+	{
+		for (int child = firstChildren[node]; child != NONE; child = nextSiblings[child])
+			if (boards[child] == board)
+				return child;
+		int child = addChild(node, board, scores[node], USER);
+		if (child != NONE)
+			depth = Math.max(depth, ply);
+		return child;
+	}
+
+	/**
+	 * Whether every legal move of the root has a completed rollout.
+	 *
+	 * @return whether the root is explored
+	 */
+	private boolean isRootExplored()
+	{
+		for (int child = firstChildren[ROOT]; child != NONE; child = nextSiblings[child])
+			if (visits[child] == 0)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Iterations of one thread, on the shared tree.
+	 */
+	private final class Worker implements Runnable
+	{
+		/**
+		 * Player of the rollouts, and source of the new tiles of the descents
+		 */
+		private final Rollout		player;
+
+		/**
+		 * Node counter and share of the budget
+		 */
+		private final SearchBudget	budget;
+
+		/**
+		 * Nodes from the root to the leaf of the current iteration
+		 */
+		private int[]				path	= new int[64];
+
+		/**
+		 * Number of nodes of the path
+		 */
+		private int					length;
+
+		/**
+		 * Packed board of the leaf, the user to move
+		 */
+		private long				leafBoard;
+
+		/**
+		 * Score of the leaf
+		 */
+		private int					leafScore;
+
+		/**
+		 * Constructor
+		 *
+		 * @param policy
+		 *            policy of the rollouts
+		 * @param seed
+		 *            seed of the random stream of the thread
+		 * @param budget
+		 *            share of the budget
+		 */
+		Worker(RolloutPolicy policy, long seed, SearchBudget budget)
+		{
+			player = new Rollout(policy);
+			player.seed(seed);
+			this.budget = budget;
+		}
+
+		@Override
+		public void run()
+		{
+			while (descend())
+			{
+				// the ply of the leaf is the number of moves on the path, every other node
+				int points = player.play(leafBoard, leafScore, length / 2, budget);
+				update(points);
+			}
+		}
+
+		/**
+		 * Starts an iteration: descends from the root to a leaf, adding the nodes met for the first time, and counts a virtual loss on every node of the path.
+		 *
+		 * @return whether the iteration is started, false if the search is over
+		 */
+		private boolean descend()
+		{
+			synchronized (MonteCarloTreeSearch.this)
+			{
+				if ((maxIterations > 0 && iterations >= maxIterations || budget.isExhausted() || Thread.currentThread().isInterrupted()) && isRootExplored())
+					return false;
+				++iterations;
+				length = 0;
+				int node = ROOT;
+				while (true)
+				{
+					push(node);
+					int ply = length / 2;
+					if (moves[node] == USER)
+					{
+						leafBoard = boards[node];
+						leafScore = scores[node];
+						if (node != ROOT && visits[node] + virtualLosses[node] == 0 || BitBoard.isGameTerminated(leafBoard, leafScore))
+							break;
+						if (firstChildren[node] == NONE && !expand(node, ply, budget))
+							break;
+						node = select(node);
+					}
+					else
+					{
+						long board = player.spawn(boards[node]);
+						int child = outcome(node, board, ply);
+						if (child == NONE)
+						{
+							leafBoard = board;
+							leafScore = scores[node];
+							break;
+						}
+						node = child;
+					}
+				}
+				for (int k = 0; k < length; ++k)
+					++virtualLosses[path[k]];
+				return true;
+			}
+		}
+
+		/**
+		 * Ends an iteration: replaces the virtual losses of the path by the final score of the rollout.
+		 *
+		 * @param points
+		 *            final score
+		 */
+		private void update(int points)
+		{
+			synchronized (MonteCarloTreeSearch.this)
+			{
+				for (int k = 0; k < length; ++k)
+				{
+					int node = path[k];
+					--virtualLosses[node];
+					++visits[node];
+					totals[node] += points;
+				}
+			}
+		}
+
+		/**
+		 * Appends a node to the path.
+		 *
+		 * @param node
+		 *            node
+		 */
+		private void push(int node)
+		{
+			if (length == path.length)
+				path = Arrays.copyOf(path, 2 * length);
+			path[length++] = node;
+		}
+	}
+}
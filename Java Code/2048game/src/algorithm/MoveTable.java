@@ -0,0 +1,63 @@
+package algorithm;
+
+/**
+ * Precomputed slides of every possible packed row. Each table is indexed by a 16-bit packed row, as returned by {@link BitBoard#getRow(long, int)}, and is filled once
+ * when the class is loaded.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+final class MoveTable
+{
+	/**
+	 * Number of possible packed rows
+	 */
+	static final int	ROW_COUNT	= 1 << 16;
+	/**
+	 * Row after a left slide
+	 */
+	static final char[]	LEFT		= new char[ROW_COUNT];
+	/**
+	 * Row after a right slide
+	 */
+	static final char[]	RIGHT		= new char[ROW_COUNT];
+	/**
+	 * Points scored by a left slide
+	 */
+	static final int[]	SCORE_LEFT	= new int[ROW_COUNT];
+	/**
+	 * Points scored by a right slide
+	 */
+	static final int[]	SCORE_RIGHT	= new int[ROW_COUNT];
+	/**
+	 * Bit of a row that a left slide changes
+	 */
+	static final int	SLIDE_LEFT	= 1;
+	/**
+	 * Bit of a row that a right slide changes
+	 */
+	static final int	SLIDE_RIGHT	= 2;
+	/**
+	 * Slides that change the row, {@link #SLIDE_LEFT} and {@link #SLIDE_RIGHT}
+	 */
+	static final byte[]	SLIDES		= new byte[ROW_COUNT];
+
+	static
+	{
+		for (int row = 0; row < ROW_COUNT; ++row)
+		{
+			int reversed = BitBoard.reverseRow(row);
+			LEFT[row] = (char) BitBoard.slideRowLeft(row);
+			RIGHT[row] = (char) BitBoard.reverseRow(BitBoard.slideRowLeft(reversed));
+			SCORE_LEFT[row] = BitBoard.rowScore(row);
+			SCORE_RIGHT[row] = BitBoard.rowScore(reversed);
+			SLIDES[row] = (byte) ((LEFT[row] != row ? SLIDE_LEFT : 0) | (RIGHT[row] != row ? SLIDE_RIGHT : 0));
+		}
+	}
+
+	/**
+	 * Not instantiable.
+	 */
+	private MoveTable()
+	{
+	}
+}
@@ -1,9 +1,5 @@
 package algorithm;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
 /**
  * Estimates the next move.
  * 
@@ -11,6 +7,16 @@ import java.util.Map;
  */
 public class NextMove
 {
+	/**
+	 * Transposition table shared by every expectimax search
+	 */
+	private static final TranspositionTable	TRANSPOSITION_TABLE	= new TranspositionTable();
+
+	/**
+	 * Directions in their natural order
+	 */
+	private static final DirectionStatus[]	DIRECTIONS			= DirectionStatus.values();
+
 	/**
 	 * Player v/s Computer
 	 */
@@ -26,6 +32,59 @@ public class NextMove
 		USER
 	}
 
+	/**
+	 * Search engine
+	 */
+	public enum Engine
+	{
+		/**
+		 * Alpha-Beta pruning with an adversarial computer player
+		 */
+		MINIMAX,
+		/**
+		 * Expectimax with the computer player as a chance node
+		 */
+		EXPECTIMAX,
+		/**
+		 * Monte Carlo rollouts after every move, the best mean final score wins
+		 */
+		MONTE_CARLO,
+		/**
+		 * Monte Carlo tree search with UCT, the most visited move wins
+		 */
+		MCTS
+	}
+
+	/**
+	 * Policy of the moves of a Monte Carlo rollout
+	 */
+	public enum RolloutPolicy
+	{
+		/**
+		 * Any legal move, all equally likely
+		 */
+		RANDOM,
+		/**
+		 * The legal move scoring the most points, ties broken at random
+		 */
+		GREEDY
+	}
+
+	/**
+	 * Pruning of the computer nodes of the expectimax engine
+	 */
+	public enum ChancePruning
+	{
+		/**
+		 * Every new tile searched
+		 */
+		NONE,
+		/**
+		 * Star1: the new tiles left are cut once the bounds of the heuristic settle the expectation against the window
+		 */
+		STAR1
+	}
+
 	/**
 	 * Finds the best next move.
 	 * 
@@ -39,269 +98,159 @@ public class NextMove
 	 */
 	public static DirectionStatus findBestMove(Board theBoard, int depth) throws CloneNotSupportedException
 	{
-		Map<String, Object> result = alphaBetaPruning(theBoard, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, Player.USER);
-		return (DirectionStatus) result.get("Direction");
+		return findBestMove(theBoard, depth, Engine.MINIMAX);
 	}
 
 	/**
-	 * Finds the best move bay using the Alpha-Beta pruning algorithm.
+	 * Finds the best next move with the given engine.
 	 * 
 	 * @param theBoard
 	 *            game board
 	 * @param depth
 	 *            depth of tree to be searched
-	 * @param alpha
-	 *            alpha value
-	 * @param beta
-	 *            beta value
-	 * @param player
-	 *            player
-	 * @return game tree
+	 * @param engine
+	 *            search engine
+	 * @return best direction to be moved
 	 * @throws CloneNotSupportedException
 	 *             clone not supported
 	 */
-	private static Map<String, Object> alphaBetaPruning(Board theBoard, int depth, int alpha, int beta, Player player) throws CloneNotSupportedException
+	public static DirectionStatus findBestMove(Board theBoard, int depth, Engine engine) throws CloneNotSupportedException
 	{
-		Map<String, Object> result = new HashMap<>();
-		DirectionStatus bestDirection = null;
-		int bestScore;
-		if (theBoard.isGameTerminated())
-		{
-			if (theBoard.hasWon())
-				bestScore = Integer.MAX_VALUE;
-			else
-				bestScore = Math.min(theBoard.getScore(), 1);
-		}
-		else if (depth == 0)
-			bestScore = heuristicScore(theBoard, theBoard.getScore(), theBoard.getNumberOfEmptyCells(), mergeScore(theBoard.getBoardArray()), maxValue(theBoard.getBoardArray()));
-		else
-		{
-			if (player == Player.USER)
-			{
-				for (DirectionStatus direction : DirectionStatus.values())
-				{
-					Board newBoard = (Board) theBoard.clone();
-					int points = newBoard.move(direction);
-					if (points == 0 && newBoard.isEqual(theBoard.getBoardArray(), newBoard.getBoardArray()))
-						continue;
-					Map<String, Object> currentResult = alphaBetaPruning(newBoard, depth - 1, alpha, beta, Player.COMPUTER);
-					int currentScore = ((Number) currentResult.get("Score")).intValue();
-					if (currentScore > alpha)
-					{
-						alpha = currentScore;
-						bestDirection = direction;
-					}
-					if (beta <= alpha)
-						break;
-				}
-				bestScore = alpha;
-			}
-			else
-			{
-				List<Integer> moves = theBoard.getEmptyCellIds();
-				int[] possibleValues = { 2, 4 };
-				int i, j;
-				abloop: for (Integer cellId : moves)
-				{
-					i = cellId / Board.BOARD_SIZE;
-					j = cellId % Board.BOARD_SIZE;
-					for (int value : possibleValues)
-					{
-						Board newBoard = (Board) theBoard.clone();
-						newBoard.setEmptyCell(i, j, value);
-						Map<String, Object> currentResult = alphaBetaPruning(newBoard, depth - 1, alpha, beta, Player.USER);
-						int currentScore = ((Number) currentResult.get("Score")).intValue();
-						if (currentScore < beta)
-							beta = currentScore;
-						if (beta <= alpha)
-							break abloop;
-					}
-				}
-				bestScore = beta;
-				if (moves.isEmpty())
-					bestScore = 0;
-			}
-		}
-		result.put("Score", bestScore);
-		result.put("Direction", bestDirection);
-		return result;
+		return search(theBoard, depth, engine).getDirection();
 	}
 
 	/**
-	 * Max Value Heuristic
+	 * Searches the best next move with the given engine.
 	 * 
-	 * @param boardArray
+	 * @param theBoard
 	 *            game board
-	 * @return max value
+	 * @param depth
+	 *            depth of tree to be searched
+	 * @param engine
+	 *            search engine
+	 * @return search result
+	 * @throws CloneNotSupportedException
+	 *             clone not supported
 	 */
-	private static int maxValue(int boardArray[][])
+	public static SearchResult search(Board theBoard, int depth, Engine engine) throws CloneNotSupportedException
 	{
-		int max = 0;
-		for (int i = 0; i < 4; i++)
-			for (int j = 0; j < 4; j++)
-				if (boardArray[i][j] > max)
-					max = boardArray[i][j];
-		return max;
+		return search(theBoard, depth, new SearchOptions(engine, depth), new SearchBudget(), null);
 	}
 
 	/**
-	 * Merge score heuristic
+	 * Finds the best next move by iterative deepening within the time and node budget of the options.
 	 * 
-	 * @param boardArray
+	 * @param theBoard
 	 *            game board
-	 * @return merge score
+	 * @param options
+	 *            search options
+	 * @return best direction to be moved
+	 * @throws CloneNotSupportedException
+	 *             clone not supported
 	 */
-	private static int mergeScore(int[][] boardArray)
+	public static DirectionStatus findBestMove(Board theBoard, SearchOptions options) throws CloneNotSupportedException
 	{
-		int mergeScore = 0;
-		int size = boardArray.length;
-		for (int i = 0; i < size; i++)
-		{
-			for (int j = 0; j < size; j++)
-			{
-				try
-				{
-					if (boardArray[i][j] == boardArray[i][j + 1] && boardArray[i][j] != 0)
-						mergeScore++;
-					if (boardArray[i][j] == boardArray[i + 1][j] && boardArray[i][j] != 0)
-						mergeScore++;
-					if (boardArray[i][j] == boardArray[i][j - 1] && boardArray[i][j] != 0)
-						mergeScore++;
-					if (boardArray[i][j] == boardArray[i - 1][j] && boardArray[i][j] != 0)
-						mergeScore++;
-					if (i == 0)
-					{
-						if (boardArray[i][j] == boardArray[size - 1][j] && boardArray[i][j] != 0)
-							mergeScore++;
-					}
-					if (i == size - 1)
-					{
-						if (boardArray[i][j] == boardArray[0][j] && boardArray[i][j] != 0)
-							mergeScore++;
-					}
-					if (j == 0)
-					{
-						if (boardArray[i][j] == boardArray[i][size - 1] && boardArray[i][j] != 0)
-							mergeScore++;
-					}
-					if (j == size - 1)
-					{
-						if (boardArray[i][j] == boardArray[i][0] && boardArray[i][j] != 0)
-							mergeScore++;
-					}
-				}
-				catch (ArrayIndexOutOfBoundsException e)
-				{
-
-				}
-			}
-		}
-		return mergeScore;
+		return search(theBoard, options).getDirection();
 	}
 
 	/**
-	 * Estimates a heuristic score by taking into account the real score, the number of empty cells and the clustering score of the board.
+	 * Searches the best next move by iterative deepening. Each level searches the best direction of the previous level first, and the result of the deepest completed
+	 * level is returned when the budget is spent. The Monte Carlo engines do not deepen: they play their rollouts or iterations once, within the same budget.
 	 * 
 	 * @param theBoard
 	 *            game board
-	 * @param actualScore
-	 *            actual score
-	 * @param numberOfEmptyCells
-	 *            number of empty cells
-	 * @param mergeScore
-	 *            merge score
-	 * @param maxValue
-	 *            max value
-	 * @return heuristic score
+	 * @param options
+	 *            search options
+	 * @return search result of the deepest completed level, with the nodes and time of every level, and the statistics if the options collect them
+	 * @throws CloneNotSupportedException
+	 *             clone not supported
 	 */
-	private static int heuristicScore(Board theBoard, int actualScore, int numberOfEmptyCells, int mergeScore, int maxValue)
+	public static SearchResult search(Board theBoard, SearchOptions options) throws CloneNotSupportedException
 	{
-		int score = (int) (monotonocity(theBoard.getBoardArray()) + numberOfEmptyCells + mergeScore + maxValue);
-		return Math.max(score, Math.min(actualScore, 1));
+		long start = System.nanoTime();
+		SearchStatistics statistics = options.isCollectStatistics() ? new SearchStatistics() : null;
+		SearchBudget budget = new SearchBudget(statistics);
+		if (statistics != null)
+			statistics.countSearch();
+		if (options.getEngine() == Engine.MONTE_CARLO || options.getEngine() == Engine.MCTS)
+		{
+			budget.setLimits(options.getNodeBudget(), start + options.getTimeBudgetMillis() * 1000000L, options.getTimeBudgetMillis() > 0);
+			SearchResult result = search(theBoard, 1, options, budget, null);
+			return new SearchResult(result.getDirection(), result.getValue(), result.getDepth(), result.getNodes(), System.nanoTime() - start, statistics,
+					result.getRollouts());
+		}
+		SearchResult best = null;
+		for (int depth = 1; depth <= Math.max(options.getMaxDepth(), 1); ++depth)
+		{
+			if (statistics != null)
+				statistics.beginIteration(depth);
+			SearchResult result = search(theBoard, depth, options, budget, best == null ? null : best.getDirection());
+			if (statistics != null)
+				statistics.endIteration(depth, result.getNodes(), result.getElapsedNanos(), !budget.isExhausted());
+			if (budget.isExhausted())
+				break;
+			best = result;
+			if (best.getDirection() == null)
+				break;
+			if (depth == 1)
+				budget.setLimits(options.getNodeBudget(), start + options.getTimeBudgetMillis() * 1000000L, options.getTimeBudgetMillis() > 0);
+		}
+		return new SearchResult(best.getDirection(), best.getValue(), best.getDepth(), budget.getNodes(), System.nanoTime() - start, statistics);
 	}
 
 	/**
-	 * Monotonicity Heuristic
+	 * Searches the best next move to a fixed depth within a budget.
 	 * 
-	 * @param boardArray
-	 *            board
-	 * @return monotonicity count
+	 * @param theBoard
+	 *            game board
+	 * @param depth
+	 *            depth of tree to be searched
+	 * @param options
+	 *            search options
+	 * @param budget
+	 *            node counter and budget
+	 * @param firstDirection
+	 *            direction searched first, null for the natural order
+	 * @return search result, to be discarded if the budget is spent
+	 * @throws CloneNotSupportedException
+	 *             clone not supported
 	 */
-	private static double monotonocity(int[][] boardArray)
+	private static SearchResult search(Board theBoard, int depth, SearchOptions options, SearchBudget budget, DirectionStatus firstDirection) throws CloneNotSupportedException
 	{
-		double[] totals = { 0, 0, 0, 0 };
-		for (int i = 0; i < 4; i++)
-		{
-			int current = 0;
-			int next = current + 1;
-			while (next < 4)
-			{
-				while (next < 4 && !cellOccupied(i, next, boardArray))
-					next++;
-				if (next >= 4)
-					next--;
-				double currentValue, nextValue;
-				if (cellOccupied(i, current, boardArray))
-					currentValue = Math.log(boardArray[i][current]) / Math.log(2);
-				else
-					currentValue = 0;
-				if (cellOccupied(i, next, boardArray))
-					nextValue = Math.log(boardArray[i][next]) / Math.log(2);
-				else
-					nextValue = 0;
-				if (currentValue > nextValue)
-					totals[0] += nextValue - currentValue;
-				else if (nextValue > currentValue)
-					totals[1] += currentValue - nextValue;
-				current = next;
-				next++;
-			}
-		}
-		for (int i = 0; i < 4; i++)
+		if (options.getEngine() == Engine.MONTE_CARLO)
+			return MonteCarlo.search(theBoard.toBitBoard(), theBoard.getScore(), options, budget);
+		if (options.getEngine() == Engine.MCTS)
+			return MonteCarloTreeSearch.search(theBoard.toBitBoard(), theBoard.getScore(), options, budget);
+		TranspositionTable table = options.getTranspositionTable() != null ? options.getTranspositionTable() : TRANSPOSITION_TABLE;
+		if (options.getPool() != null)
+			return ParallelSearch.search(theBoard, depth, options, table, budget, firstDirection);
+		if (options.getEngine() == Engine.EXPECTIMAX)
 		{
-			int current = 0;
-			int next = current + 1;
-			while (next < 4)
-			{
-				while (next < 4 && !cellOccupied(next, i, boardArray))
-					next++;
-				if (next >= 4)
-					next--;
-				double currentValue, nextValue;
-				if (cellOccupied(current, i, boardArray))
-					currentValue = (Math.log(boardArray[current][i]) / Math.log(2));
-				else
-					currentValue = 0;
-				if (cellOccupied(next, i, boardArray))
-					nextValue = (Math.log(boardArray[next][i]) / Math.log(2));
-				else
-					nextValue = 0;
-				if (currentValue > nextValue)
-					totals[2] += nextValue - currentValue;
-				else if (nextValue > currentValue)
-					totals[3] += currentValue - nextValue;
-				current = next;
-				next++;
-			}
+			Expectimax expectimax = new Expectimax(table);
+			expectimax.setProbabilityCutoff(options.getProbabilityCutoff());
+			expectimax.setChancePruning(options.getChancePruning());
+			return expectimax.search(theBoard.toBitBoard(), theBoard.getScore(), depth, budget, firstDirection);
 		}
-		return Math.max(totals[0], totals[1]) + Math.max(totals[2], totals[3]);
+		return new Minimax().search(theBoard.toBitBoard(), theBoard.getScore(), depth, budget, firstDirection);
 	}
 
 	/**
-	 * Whether a cell is occupied or not
+	 * Returns the directions with the given one first.
 	 * 
-	 * @param i
-	 *            position
-	 * @param j
-	 *            position
-	 * @param boardArray
-	 *            board
-	 * @return occupied or not
+	 * @param firstDirection
+	 *            direction to be searched first, null for the natural order
+	 * @return directions, not to be modified
 	 */
-	private static boolean cellOccupied(int i, int j, int[][] boardArray)
+	static DirectionStatus[] orderedDirections(DirectionStatus firstDirection)
 	{
-		if (boardArray[i][j] == 0)
-			return false;
-		return true;
+		if (firstDirection == null || firstDirection == DIRECTIONS[0])
+			return DIRECTIONS;
+		DirectionStatus[] directions = new DirectionStatus[DIRECTIONS.length];
+		directions[0] = firstDirection;
+		int k = 1;
+		for (DirectionStatus direction : DIRECTIONS)
+			if (direction != firstDirection)
+				directions[k++] = direction;
+		return directions;
 	}
-}
\ No newline at end of file
+}
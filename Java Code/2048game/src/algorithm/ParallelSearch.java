@@ -0,0 +1,306 @@
+package algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import algorithm.NextMove.Engine;
+import algorithm.NextMove.Player;
+
+/**
+ * Searches in parallel on the fork/join pool of the {@link SearchOptions}. Every root move is a task. Computer nodes with at least the split depth left to search are
+ * split further into one task per empty cell and tile value, idle threads steal those tasks, and smaller subtrees are searched sequentially. Each task owns its search
+ * state and its share of the budget, and the results are merged in the order the sequential search would visit them, so the chosen direction does not depend on the
+ * number of threads, unless the expectimax engine has a probability cutoff.
+ * <p>
+ * Inside the split part of the tree the Alpha-Beta pruning searches with a full window. The expectimax tasks key the shared table by the raw board as the sequential
+ * search does, so both fill and read the same entries and the same options choose the same direction whatever the number of threads.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+final class ParallelSearch
+{
+	/**
+	 * Split depth that never splits
+	 */
+	private static final int	NO_SPLIT	= Integer.MAX_VALUE;
+
+	/**
+	 * Not instantiable.
+	 */
+	private ParallelSearch()
+	{
+	}
+
+	/**
+	 * Searches the best next move to a fixed depth.
+	 *
+	 * @param theBoard
+	 *            game board
+	 * @param depth
+	 *            depth of tree to be searched
+	 * @param options
+	 *            search options, with a pool
+	 * @param table
+	 *            transposition table of the expectimax engine
+	 * @param budget
+	 *            node counter and budget
+	 * @param firstDirection
+	 *            direction merged first, null for the natural order
+	 * @return search result, to be discarded if the budget is spent
+	 */
+	static SearchResult search(Board theBoard, int depth, SearchOptions options, TranspositionTable table, SearchBudget budget, DirectionStatus firstDirection)
+	{
+		long start = System.nanoTime();
+		long startNodes = budget.getNodes();
+		budget.countNode(depth);
+		long board = theBoard.toBitBoard();
+		int score = theBoard.getScore();
+		int splitDepth = NO_SPLIT;
+		if (options.getChanceSplitDepth() > 0)
+			splitDepth = options.getChanceSplitDepth();
+		else if (options.isSplitChanceLayer())
+			splitDepth = depth - 1;
+		List<NodeTask> tasks = new ArrayList<>();
+		List<DirectionStatus> directions = new ArrayList<>();
+		if (depth > 0 && !BitBoard.isGameTerminated(board, score))
+		{
+			int legalMoves = BitBoard.legalMoveMask(board);
+			for (DirectionStatus direction : NextMove.orderedDirections(firstDirection))
+			{
+				if (!BitBoard.isLegal(legalMoves, direction))
+					continue;
+				long newBoard = BitBoard.move(board, direction);
+				tasks.add(new NodeTask(newBoard, score + BitBoard.moveScore(board, direction), depth - 1, Player.COMPUTER, 1, splitDepth, options, table));
+				directions.add(direction);
+			}
+		}
+		for (NodeTask task : tasks)
+			task.budget = budget.split(tasks.size());
+		for (NodeTask task : tasks)
+			options.getPool().execute(task);
+		DirectionStatus bestDirection = null;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		for (int k = 0; k < tasks.size(); ++k)
+		{
+			double value = tasks.get(k).join();
+			budget.merge(tasks.get(k).budget);
+			if (value > bestValue)
+			{
+				bestValue = value;
+				bestDirection = directions.get(k);
+			}
+		}
+		if (bestDirection == null)
+			bestValue = Expectimax.staticValue(board, score);
+		return new SearchResult(bestDirection, bestValue, depth, budget.getNodes() - startNodes, System.nanoTime() - start);
+	}
+
+	/**
+	 * Value of a node, splitting the computer nodes with at least the split depth left into parallel tasks.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 * @param depth
+	 *            remaining depth
+	 * @param player
+	 *            player to move
+	 * @param probability
+	 *            probability of the node being reached from the root
+	 * @param splitDepth
+	 *            smallest remaining depth of a split computer node
+	 * @param options
+	 *            search options
+	 * @param table
+	 *            transposition table of the expectimax engine
+	 * @param budget
+	 *            node counter and budget of the current task
+	 * @return value
+	 */
+	private static double value(long board, int score, int depth, Player player, double probability, int splitDepth, SearchOptions options, TranspositionTable table,
+			SearchBudget budget)
+	{
+		boolean expand = depth > 0 && (player == Player.COMPUTER ? depth >= splitDepth : depth - 1 >= splitDepth);
+		// a user node below the probability cutoff is not searched, the sequential search evaluates it
+		if (options.getEngine() == Engine.EXPECTIMAX && player == Player.USER && probability < options.getProbabilityCutoff())
+			expand = false;
+		if (!expand || BitBoard.isGameTerminated(board, score) || (player == Player.COMPUTER && BitBoard.countEmptyCells(board) == 0))
+			return sequentialValue(board, score, depth, player, probability, options, table, budget);
+		if (budget.countNode(depth))
+			return 0;
+		if (player == Player.USER)
+		{
+			double bestValue = Double.NEGATIVE_INFINITY;
+			int legalMoves = BitBoard.legalMoveMask(board);
+			for (DirectionStatus direction : DirectionStatus.values())
+			{
+				if (!BitBoard.isLegal(legalMoves, direction))
+					continue;
+				long newBoard = BitBoard.move(board, direction);
+				bestValue = Math.max(bestValue, value(newBoard, score + BitBoard.moveScore(board, direction), depth - 1, Player.COMPUTER, probability, splitDepth, options, table,
+						budget));
+			}
+			return bestValue;
+		}
+		List<NodeTask> spawns = new ArrayList<>();
+		int emptyCells = BitBoard.emptyCellMask(board);
+		double cellProbability = probability / Integer.bitCount(emptyCells);
+		while (emptyCells != 0)
+		{
+			int cellId = Integer.numberOfTrailingZeros(emptyCells);
+			emptyCells &= emptyCells - 1;
+			spawns.add(new NodeTask(BitBoard.setExponent(board, cellId, 1), score, depth - 1, Player.USER, cellProbability * SpawnSource.PROBABILITY_OF_TWO, splitDepth,
+					options, table));
+			spawns.add(new NodeTask(BitBoard.setExponent(board, cellId, 2), score, depth - 1, Player.USER, cellProbability * SpawnSource.PROBABILITY_OF_FOUR, splitDepth,
+					options, table));
+		}
+		for (NodeTask spawn : spawns)
+			spawn.budget = budget.split(spawns.size());
+		RecursiveTask.invokeAll(spawns);
+		for (NodeTask spawn : spawns)
+			budget.merge(spawn.budget);
+		if (options.getEngine() == Engine.EXPECTIMAX)
+		{
+			double total = 0;
+			for (int k = 0; k < spawns.size(); k += 2)
+			{
+				total += SpawnSource.PROBABILITY_OF_TWO * spawns.get(k).join();
+				total += SpawnSource.PROBABILITY_OF_FOUR * spawns.get(k + 1).join();
+			}
+			return total / (spawns.size() / 2);
+		}
+		double worst = Integer.MAX_VALUE;
+		for (NodeTask spawn : spawns)
+			worst = Math.min(worst, spawn.join());
+		return worst;
+	}
+
+	/**
+	 * Value of a node, searched sequentially by the engine of the options.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param score
+	 *            score so far
+	 * @param depth
+	 *            remaining depth
+	 * @param player
+	 *            player to move
+	 * @param probability
+	 *            probability of the node being reached from the root
+	 * @param options
+	 *            search options
+	 * @param table
+	 *            transposition table of the expectimax engine
+	 * @param budget
+	 *            node counter and budget
+	 * @return value
+	 */
+	private static double sequentialValue(long board, int score, int depth, Player player, double probability, SearchOptions options, TranspositionTable table,
+			SearchBudget budget)
+	{
+		if (options.getEngine() == Engine.EXPECTIMAX)
+		{
+			Expectimax expectimax = new Expectimax(table);
+			expectimax.setProbabilityCutoff(options.getProbabilityCutoff());
+			expectimax.setChancePruning(options.getChancePruning());
+			return expectimax.expectimax(board, score, depth, player, probability, budget);
+		}
+		return new Minimax().value(board, score, depth, Integer.MIN_VALUE, Integer.MAX_VALUE, player, budget);
+	}
+
+	/**
+	 * Search of one node as a fork/join task.
+	 */
+	private static class NodeTask extends RecursiveTask<Double>
+	{
+		/**
+		 * Not used, required to turn off compiler warning.
+		 */
+		private static final long			serialVersionUID	= 1L;
+
+		/**
+		 * Packed board
+		 */
+		private final long					board;
+
+		/**
+		 * Score so far
+		 */
+		private final int					score;
+
+		/**
+		 * Remaining depth
+		 */
+		private final int					depth;
+
+		/**
+		 * Player to move
+		 */
+		private final Player				player;
+
+		/**
+		 * Probability of the node being reached from the root
+		 */
+		private final double				probability;
+
+		/**
+		 * Smallest remaining depth of a split computer node
+		 */
+		private final int					splitDepth;
+
+		/**
+		 * Search options
+		 */
+		private final SearchOptions			options;
+
+		/**
+		 * Transposition table of the expectimax engine
+		 */
+		private final TranspositionTable	table;
+
+		/**
+		 * Node counter and budget of the task, set before the task is forked
+		 */
+		private SearchBudget				budget;
+
+		/**
+		 * Constructor
+		 *
+		 * @param board
+		 *            packed board
+		 * @param score
+		 *            score so far
+		 * @param depth
+		 *            remaining depth
+		 * @param player
+		 *            player to move
+		 * @param probability
+		 *            probability of the node being reached from the root
+		 * @param splitDepth
+		 *            smallest remaining depth of a split computer node
+		 * @param options
+		 *            search options
+		 * @param table
+		 *            transposition table of the expectimax engine
+		 */
+		NodeTask(long board, int score, int depth, Player player, double probability, int splitDepth, SearchOptions options, TranspositionTable table)
+		{
+			this.board = board;
+			this.score = score;
+			this.depth = depth;
+			this.player = player;
+			this.probability = probability;
+			this.splitDepth = splitDepth;
+			this.options = options;
+			this.table = table;
+		}
+
+		@Override
+		protected Double compute()
+		{
+			return value(board, score, depth, player, probability, splitDepth, options, table, budget);
+		}
+	}
+}
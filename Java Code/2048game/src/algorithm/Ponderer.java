@@ -0,0 +1,187 @@
+package algorithm;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Searches ahead while the opponent moves: given the board after a move of the user, before the new tile lands, it searches the boards of the likely new tiles, most
+ * probable first, and keeps the results by board. When the new tile lands, {@link #lookup(long)} answers at once if the board was searched. Pondering runs on a thread
+ * of its own and is stopped by the next call to {@link #ponder(long, int)} or {@link #stop()}.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public class Ponderer
+{
+	/**
+	 * Options of the searches, the same as those of the searches the results replace
+	 */
+	private final SearchOptions							options;
+
+	/**
+	 * Thread of the searches, a daemon so it does not keep the application alive
+	 */
+	private final ExecutorService						executor;
+
+	/**
+	 * Results of the boards searched since the last call to {@link #ponder(long, int)}
+	 */
+	private final ConcurrentHashMap<Long, SearchResult>	results	= new ConcurrentHashMap<>();
+
+	/**
+	 * Pondering in progress, null if none
+	 */
+	private Future<?>									pondering;
+
+	/**
+	 * Number of boards searched
+	 */
+	private volatile long								pondered;
+
+	/**
+	 * Number of lookups
+	 */
+	private long										lookups;
+
+	/**
+	 * Number of lookups answered
+	 */
+	private long										hits;
+
+	/**
+	 * Constructor
+	 *
+	 * @param options
+	 *            options of the searches, not to be modified while pondering
+	 */
+	public Ponderer(SearchOptions options)
+	{
+		this.options = options;
+		executor = Executors.newSingleThreadExecutor(new ThreadFactory()
+		{
+			@Override
+			public Thread newThread(Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, "ponderer");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Starts searching the boards that may follow a move of the user, after stopping the previous pondering and forgetting its results. A 2 is 9 times more likely than a
+	 * 4 in every empty cell, so the boards with a new 2 are searched first.
+	 *
+	 * @param board
+	 *            packed board after the move of the user, before the new tile
+	 * @param score
+	 *            score after the move
+	 */
+	public synchronized void ponder(final long board, final int score)
+	{
+		stop();
+		results.clear();
+		pondering = executor.submit(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				for (int exponent = 1; exponent <= 2; ++exponent)
+				{
+					int emptyCells = BitBoard.emptyCellMask(board);
+					while (emptyCells != 0)
+					{
+						int cellId = Integer.numberOfTrailingZeros(emptyCells);
+						emptyCells &= emptyCells - 1;
+						long spawned = BitBoard.setExponent(board, cellId, exponent);
+						SearchResult result;
+						try
+						{
+							result = NextMove.search(new Board(spawned, score), options);
+						}
+						catch (CloneNotSupportedException e)
+						{
+							throw new IllegalStateException(e);
+						}
+						// an interrupted search returns early with a shallower result
+						if (Thread.currentThread().isInterrupted())
+							return;
+						results.put(spawned, result);
+						++pondered;
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Stops the pondering in progress, if any. Its search is interrupted, which spends its time budget, and the results found so far are kept.
+	 */
+	public synchronized void stop()
+	{
+		if (pondering != null)
+		{
+			pondering.cancel(true);
+			pondering = null;
+		}
+	}
+
+	/**
+	 * Returns the result of a board searched by the pondering, and counts the lookup.
+	 *
+	 * @param board
+	 *            packed board
+	 * @return search result, null if the board was not searched
+	 */
+	public synchronized SearchResult lookup(long board)
+	{
+		++lookups;
+		SearchResult result = results.get(board);
+		if (result != null)
+			++hits;
+		return result;
+	}
+
+	/**
+	 * Returns the number of boards searched.
+	 *
+	 * @return boards searched
+	 */
+	public long getPondered()
+	{
+		return pondered;
+	}
+
+	/**
+	 * Returns the number of lookups.
+	 *
+	 * @return lookups
+	 */
+	public synchronized long getLookups()
+	{
+		return lookups;
+	}
+
+	/**
+	 * Returns the number of lookups answered.
+	 *
+	 * @return hits
+	 */
+	public synchronized long getHits()
+	{
+		return hits;
+	}
+
+	/**
+	 * Returns the share of lookups answered.
+	 *
+	 * @return hit rate from 0 to 1, 0 before the first lookup
+	 */
+	public synchronized double getHitRate()
+	{
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+}
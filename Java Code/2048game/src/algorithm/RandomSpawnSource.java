@@ -0,0 +1,49 @@
+package algorithm;
+
+import java.util.Random;
+
+/**
+ * Spawn source backed by a {@link Random}, drawing the same numbers as the game always has so a seeded generator replays the same tiles.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public class RandomSpawnSource implements SpawnSource
+{
+	/**
+	 * Random generator
+	 */
+	private final Random	randomGenerator;
+
+	/**
+	 * Constructor
+	 *
+	 * @param randomGenerator
+	 *            random generator
+	 */
+	public RandomSpawnSource(Random randomGenerator)
+	{
+		this.randomGenerator = randomGenerator;
+	}
+
+	/**
+	 * Returns the random generator.
+	 *
+	 * @return random generator
+	 */
+	public Random getRandomGenerator()
+	{
+		return randomGenerator;
+	}
+
+	@Override
+	public int nextCell(int numberOfEmptyCells)
+	{
+		return randomGenerator.nextInt(numberOfEmptyCells);
+	}
+
+	@Override
+	public boolean nextIsFour()
+	{
+		return randomGenerator.nextDouble() >= PROBABILITY_OF_TWO;
+	}
+}
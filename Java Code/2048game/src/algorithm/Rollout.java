@@ -0,0 +1,185 @@
+package algorithm;
+
+import algorithm.NextMove.RolloutPolicy;
+
+/**
+ * Plays Monte Carlo rollouts on packed boards: moves chosen by a {@link RolloutPolicy} and new tiles put with the probabilities of the game, until the game is won or
+ * no move is left. The random numbers come from a SplitMix64 stream owned by the rollout, so a rollout is reproducible from its seed and one instance serves one thread.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+final class Rollout
+{
+	/**
+	 * Increment of the random streams, the golden ratio in 64 bits
+	 */
+	static final long						GOLDEN_GAMMA	= 0x9E3779B97F4A7C15L;
+
+	/**
+	 * Directions by code
+	 */
+	private static final DirectionStatus[]	BY_CODE			= new DirectionStatus[DirectionStatus.values().length];
+
+	/**
+	 * Policy of the moves
+	 */
+	private final RolloutPolicy				policy;
+
+	/**
+	 * State of the random stream
+	 */
+	private long							state;
+
+	static
+	{
+		for (DirectionStatus direction : DirectionStatus.values())
+			BY_CODE[direction.getCode()] = direction;
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param policy
+	 *            policy of the moves
+	 */
+	Rollout(RolloutPolicy policy)
+	{
+		this.policy = policy;
+	}
+
+	/**
+	 * Restarts the random stream.
+	 *
+	 * @param seed
+	 *            seed of the stream
+	 */
+	void seed(long seed)
+	{
+		state = seed;
+	}
+
+	/**
+	 * Plays to the end of the game. Every move counts as a node, at its ply from the root.
+	 *
+	 * @param board
+	 *            packed board, the user to move
+	 * @param points
+	 *            score so far
+	 * @param ply
+	 *            ply of the board from the root
+	 * @param budget
+	 *            node counter
+	 * @return final score
+	 */
+	int play(long board, int points, int ply, SearchBudget budget)
+	{
+		// the depth counts down from the root, so that the statistics count the moves by ply
+		while (!BitBoard.hasWon(board, points))
+		{
+			int legalMoves = BitBoard.legalMoveMask(board);
+			if (legalMoves == 0)
+				break;
+			DirectionStatus next = policy == RolloutPolicy.GREEDY ? greedyMove(board, legalMoves) : randomMove(legalMoves);
+			points += BitBoard.moveScore(board, next);
+			board = spawn(BitBoard.move(board, next));
+			budget.countNode(-++ply);
+		}
+		return points;
+	}
+
+	/**
+	 * Picks a legal move at random.
+	 *
+	 * @param legalMoves
+	 *            mask of legal moves, not empty
+	 * @return move
+	 */
+	private DirectionStatus randomMove(int legalMoves)
+	{
+		for (int k = nextInt(Integer.bitCount(legalMoves)); k > 0; --k)
+			legalMoves &= legalMoves - 1;
+		return BY_CODE[Integer.numberOfTrailingZeros(legalMoves)];
+	}
+
+	/**
+	 * Picks the legal move scoring the most points, ties broken at random.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param legalMoves
+	 *            mask of legal moves, not empty
+	 * @return move
+	 */
+	private DirectionStatus greedyMove(long board, int legalMoves)
+	{
+		int bestPoints = -1;
+		int best = 0;
+		for (DirectionStatus direction : DirectionStatus.values())
+			if (BitBoard.isLegal(legalMoves, direction))
+			{
+				int points = BitBoard.moveScore(board, direction);
+				if (points > bestPoints)
+				{
+					bestPoints = points;
+					best = 0;
+				}
+				if (points == bestPoints)
+					best |= 1 << direction.getCode();
+			}
+		return randomMove(best);
+	}
+
+	/**
+	 * Puts a new tile in a random empty cell, with the probabilities of the game.
+	 *
+	 * @param board
+	 *            packed board
+	 * @return new packed board, the same if it is full
+	 */
+	long spawn(long board)
+	{
+		int emptyCells = BitBoard.countEmptyCells(board);
+		if (emptyCells == 0)
+			return board;
+		int cell = nextInt(emptyCells);
+		int exponent = (next() >>> 11) * 0x1.0p-53 < SpawnSource.PROBABILITY_OF_TWO ? 1 : 2;
+		return BitBoard.addTile(board, cell, exponent);
+	}
+
+	/**
+	 * Returns the next value of the random stream.
+	 *
+	 * @return 64 random bits
+	 */
+	private long next()
+	{
+		state += GOLDEN_GAMMA;
+		return mix(state);
+	}
+
+	/**
+	 * Returns a random number below a bound.
+	 *
+	 * @param bound
+	 *            bound, positive
+	 * @return number from 0 to bound - 1
+	 */
+	private int nextInt(int bound)
+	{
+		return (int) (((next() >>> 32) * bound) >>> 32);
+	}
+
+	/**
+	 * Scrambles a 64-bit value, the finalizer of SplitMix64.
+	 *
+	 * @param z
+	 *            value
+	 * @return scrambled value
+	 */
+	static long mix(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,171 @@
+package algorithm;
+
+/**
+ * Counts the nodes of a search and tells when its node or time budget is spent, or when the thread of a timed search is interrupted. The clock and the interrupt flag
+ * are only read every {@link #CLOCK_INTERVAL} nodes. The budget also carries the statistics of the search, if they are collected.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+final class SearchBudget
+{
+	/**
+	 * Number of nodes between two reads of the clock, a power of two
+	 */
+	static final int					CLOCK_INTERVAL	= 1024;
+
+	/**
+	 * Number of nodes visited
+	 */
+	private long						nodes;
+
+	/**
+	 * Number of nodes after which the budget is spent
+	 */
+	private long						nodeLimit		= Long.MAX_VALUE;
+
+	/**
+	 * Value of {@link System#nanoTime()} after which the budget is spent
+	 */
+	private long						deadline;
+
+	/**
+	 * Whether there is a deadline
+	 */
+	private boolean						timed;
+
+	/**
+	 * Whether the budget is spent
+	 */
+	private boolean						exhausted;
+
+	/**
+	 * Statistics of the search, null if they are not collected
+	 */
+	private final SearchStatistics		statistics;
+
+	/**
+	 * Constructor of a budget without statistics.
+	 */
+	SearchBudget()
+	{
+		this(null);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param statistics
+	 *            statistics of the search, null if they are not collected
+	 */
+	SearchBudget(SearchStatistics statistics)
+	{
+		this.statistics = statistics;
+	}
+
+	/**
+	 * Sets the limits of the budget, counting from the nodes already visited.
+	 *
+	 * @param nodeBudget
+	 *            number of nodes, 0 for no limit
+	 * @param deadline
+	 *            value of {@link System#nanoTime()} after which the budget is spent
+	 * @param timed
+	 *            whether the deadline applies
+	 */
+	void setLimits(long nodeBudget, long deadline, boolean timed)
+	{
+		this.nodeLimit = nodeBudget > 0 ? nodeBudget : Long.MAX_VALUE;
+		this.deadline = deadline;
+		this.timed = timed;
+	}
+
+	/**
+	 * Counts one node and checks the budget.
+	 *
+	 * @param depth
+	 *            remaining depth of the node
+	 * @return whether the budget is spent
+	 */
+	boolean countNode(int depth)
+	{
+		++nodes;
+		if (statistics != null)
+			statistics.countNode(depth);
+		if (!exhausted && (nodes >= nodeLimit || ((nodes & (CLOCK_INTERVAL - 1)) == 0 && isOutOfTime())))
+			exhausted = true;
+		return exhausted;
+	}
+
+	/**
+	 * Checks the deadline of a timed budget, and whether the searching thread was interrupted, which spends the budget so a cancelled search returns early.
+	 *
+	 * @return whether the time is up
+	 */
+	private boolean isOutOfTime()
+	{
+		return timed && (System.nanoTime() - deadline >= 0 || Thread.currentThread().isInterrupted());
+	}
+
+	/**
+	 * Creates the budget of one of several tasks searching in parallel: the same deadline, an equal share of the remaining nodes and statistics of its own.
+	 *
+	 * @param parts
+	 *            number of tasks
+	 * @return budget of one task
+	 */
+	SearchBudget split(int parts)
+	{
+		SearchBudget part = new SearchBudget(statistics == null ? null : statistics.split());
+		if (nodeLimit != Long.MAX_VALUE)
+			part.nodeLimit = Math.max((nodeLimit - nodes) / parts, 1);
+		part.deadline = deadline;
+		part.timed = timed;
+		part.exhausted = exhausted;
+		return part;
+	}
+
+	/**
+	 * Adds the nodes and the statistics of a task budget created by {@link #split(int)}. This budget is spent if the task budget is.
+	 *
+	 * @param part
+	 *            budget of a task
+	 */
+	void merge(SearchBudget part)
+	{
+		nodes += part.nodes;
+		if (statistics != null)
+			statistics.merge(part.statistics);
+		if (part.exhausted)
+			exhausted = true;
+	}
+
+	/**
+	 * Returns whether the budget is spent.
+	 *
+	 * @return whether the budget is spent
+	 */
+	boolean isExhausted()
+	{
+		return exhausted;
+	}
+
+	/**
+	 * Returns the statistics of the search.
+	 *
+	 * @return statistics, null if they are not collected
+	 */
+	SearchStatistics getStatistics()
+	{
+		return statistics;
+	}
+
+	/**
+	 * Returns the number of nodes visited.
+	 *
+	 * @return nodes
+	 */
+	long getNodes()
+	{
+		return nodes;
+	}
+}
@@ -0,0 +1,455 @@
+package algorithm;
+
+import java.util.concurrent.ForkJoinPool;
+import algorithm.NextMove.ChancePruning;
+import algorithm.NextMove.Engine;
+import algorithm.NextMove.RolloutPolicy;
+
+/**
+ * Settings of an iterative deepening search. The search deepens one level at a time up to the maximum depth and stops early when the time or node budget is spent,
+ * returning the result of the deepest completed level. The first level always completes.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public class SearchOptions
+{
+	/**
+	 * Search engine
+	 */
+	private Engine				engine;
+
+	/**
+	 * Deepest level searched
+	 */
+	private int					maxDepth;
+
+	/**
+	 * Time budget in milliseconds, 0 for none
+	 */
+	private long				timeBudgetMillis;
+
+	/**
+	 * Node budget, 0 for none
+	 */
+	private long				nodeBudget;
+
+	/**
+	 * Pool of the parallel search, null for a sequential search
+	 */
+	private ForkJoinPool		pool;
+
+	/**
+	 * Whether the parallel search also splits the first computer layer into tasks
+	 */
+	private boolean				splitChanceLayer;
+
+	/**
+	 * Smallest remaining depth of a computer node split into tasks by the parallel search, 0 for none
+	 */
+	private int					chanceSplitDepth;
+
+	/**
+	 * Transposition table of the expectimax engine, null for the table shared by every search
+	 */
+	private TranspositionTable	transpositionTable;
+
+	/**
+	 * Probability of being reached below which the expectimax engine evaluates a user node by the heuristic, 0 for none
+	 */
+	private double				probabilityCutoff;
+
+	/**
+	 * Pruning of the computer nodes of the expectimax engine
+	 */
+	private ChancePruning		chancePruning	= ChancePruning.NONE;
+
+	/**
+	 * Whether the search collects statistics
+	 */
+	private boolean				collectStatistics;
+
+	/**
+	 * Number of rollouts of the Monte Carlo engine after every legal move
+	 */
+	private int					rollouts		= 100;
+
+	/**
+	 * Policy of the moves of the Monte Carlo rollouts
+	 */
+	private RolloutPolicy		rolloutPolicy	= RolloutPolicy.RANDOM;
+
+	/**
+	 * Number of threads playing the Monte Carlo rollouts, sharing the tree of the tree search
+	 */
+	private int					rolloutThreads	= 1;
+
+	/**
+	 * Number of iterations of the Monte Carlo tree search, 0 for none
+	 */
+	private int					iterations		= 1000;
+
+	/**
+	 * Exploration constant of the Monte Carlo tree search
+	 */
+	private double				exploration		= 0.25;
+
+	/**
+	 * Constructor of a search without budget.
+	 *
+	 * @param engine
+	 *            search engine
+	 * @param maxDepth
+	 *            deepest level searched
+	 */
+	public SearchOptions(Engine engine, int maxDepth)
+	{
+		this.engine = engine;
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Returns the search engine.
+	 *
+	 * @return engine
+	 */
+	public Engine getEngine()
+	{
+		return engine;
+	}
+
+	/**
+	 * Sets the search engine.
+	 *
+	 * @param engine
+	 *            engine
+	 */
+	public void setEngine(Engine engine)
+	{
+		this.engine = engine;
+	}
+
+	/**
+	 * Returns the deepest level searched.
+	 *
+	 * @return maximum depth
+	 */
+	public int getMaxDepth()
+	{
+		return maxDepth;
+	}
+
+	/**
+	 * Sets the deepest level searched.
+	 *
+	 * @param maxDepth
+	 *            maximum depth
+	 */
+	public void setMaxDepth(int maxDepth)
+	{
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Returns the time budget.
+	 *
+	 * @return time budget in milliseconds, 0 for none
+	 */
+	public long getTimeBudgetMillis()
+	{
+		return timeBudgetMillis;
+	}
+
+	/**
+	 * Sets the time budget.
+	 *
+	 * @param timeBudgetMillis
+	 *            time budget in milliseconds, 0 for none
+	 */
+	public void setTimeBudgetMillis(long timeBudgetMillis)
+	{
+		this.timeBudgetMillis = timeBudgetMillis;
+	}
+
+	/**
+	 * Returns the node budget.
+	 *
+	 * @return node budget, 0 for none
+	 */
+	public long getNodeBudget()
+	{
+		return nodeBudget;
+	}
+
+	/**
+	 * Sets the node budget.
+	 *
+	 * @param nodeBudget
+	 *            node budget, 0 for none
+	 */
+	public void setNodeBudget(long nodeBudget)
+	{
+		this.nodeBudget = nodeBudget;
+	}
+
+	/**
+	 * Returns the pool of the parallel search.
+	 *
+	 * @return pool, null for a sequential search
+	 */
+	public ForkJoinPool getPool()
+	{
+		return pool;
+	}
+
+	/**
+	 * Sets the pool of the parallel search. The moves of the root are then searched as fork/join tasks on this pool.
+	 *
+	 * @param pool
+	 *            pool, null for a sequential search
+	 */
+	public void setPool(ForkJoinPool pool)
+	{
+		this.pool = pool;
+	}
+
+	/**
+	 * Returns whether the parallel search also splits the first computer layer into tasks.
+	 *
+	 * @return whether the first computer layer is split
+	 */
+	public boolean isSplitChanceLayer()
+	{
+		return splitChanceLayer;
+	}
+
+	/**
+	 * Sets whether the parallel search also splits the first computer layer into one task per empty cell and tile value.
+	 *
+	 * @param splitChanceLayer
+	 *            whether the first computer layer is split
+	 */
+	public void setSplitChanceLayer(boolean splitChanceLayer)
+	{
+		this.splitChanceLayer = splitChanceLayer;
+	}
+
+	/**
+	 * Returns the smallest remaining depth of a computer node split into tasks by the parallel search.
+	 *
+	 * @return split depth, 0 for none
+	 */
+	public int getChanceSplitDepth()
+	{
+		return chanceSplitDepth;
+	}
+
+	/**
+	 * Sets the smallest remaining depth of a computer node split into tasks by the parallel search. Every computer node with at least this depth left is split into one
+	 * task per empty cell and tile value, smaller subtrees are searched sequentially. This overrides {@link #setSplitChanceLayer(boolean)}.
+	 *
+	 * @param chanceSplitDepth
+	 *            split depth, 0 for none
+	 */
+	public void setChanceSplitDepth(int chanceSplitDepth)
+	{
+		this.chanceSplitDepth = chanceSplitDepth;
+	}
+
+	/**
+	 * Returns the transposition table of the expectimax engine.
+	 *
+	 * @return transposition table, null for the table shared by every search
+	 */
+	public TranspositionTable getTranspositionTable()
+	{
+		return transpositionTable;
+	}
+
+	/**
+	 * Sets the transposition table of the expectimax engine.
+	 *
+	 * @param transpositionTable
+	 *            transposition table, null for the table shared by every search
+	 */
+	public void setTranspositionTable(TranspositionTable transpositionTable)
+	{
+		this.transpositionTable = transpositionTable;
+	}
+
+	/**
+	 * Returns the probability cutoff of the expectimax engine.
+	 *
+	 * @return probability of being reached below which a user node is evaluated by the heuristic, 0 for none
+	 */
+	public double getProbabilityCutoff()
+	{
+		return probabilityCutoff;
+	}
+
+	/**
+	 * Sets the probability cutoff of the expectimax engine: a user node less likely to be reached from the root, a new 2 weighing 0.9 and a new 4 weighing 0.1 divided
+	 * by the number of empty cells, is evaluated by the heuristic instead of searched.
+	 *
+	 * @param probabilityCutoff
+	 *            probability of being reached below which a user node is evaluated by the heuristic, 0 for none
+	 */
+	public void setProbabilityCutoff(double probabilityCutoff)
+	{
+		this.probabilityCutoff = probabilityCutoff;
+	}
+
+	/**
+	 * Returns the pruning of the computer nodes of the expectimax engine.
+	 *
+	 * @return chance pruning
+	 */
+	public ChancePruning getChancePruning()
+	{
+		return chancePruning;
+	}
+
+	/**
+	 * Sets the pruning of the computer nodes of the expectimax engine. Star1 searches fewer nodes for the root value of the search without pruning, up to the float
+	 * rounding of the transposition table: a near tie may choose another move, and games played with pruning may diverge from those played without. The parallel
+	 * search prunes only below its tasks.
+	 *
+	 * @param chancePruning
+	 *            chance pruning, NONE for none
+	 */
+	public void setChancePruning(ChancePruning chancePruning)
+	{
+		this.chancePruning = chancePruning;
+	}
+
+	/**
+	 * Returns whether the search collects statistics.
+	 *
+	 * @return whether statistics are collected
+	 */
+	public boolean isCollectStatistics()
+	{
+		return collectStatistics;
+	}
+
+	/**
+	 * Sets whether the search collects statistics, returned by {@link SearchResult#getStatistics()}.
+	 *
+	 * @param collectStatistics
+	 *            whether statistics are collected
+	 */
+	public void setCollectStatistics(boolean collectStatistics)
+	{
+		this.collectStatistics = collectStatistics;
+	}
+
+	/**
+	 * Returns the number of rollouts of the Monte Carlo engine after every legal move.
+	 *
+	 * @return rollouts per move
+	 */
+	public int getRollouts()
+	{
+		return rollouts;
+	}
+
+	/**
+	 * Sets the number of rollouts of the Monte Carlo engine after every legal move. The first rollout of every move is always played, the others stop when the time or
+	 * node budget is spent.
+	 *
+	 * @param rollouts
+	 *            rollouts per move
+	 */
+	public void setRollouts(int rollouts)
+	{
+		this.rollouts = rollouts;
+	}
+
+	/**
+	 * Returns the policy of the moves of the Monte Carlo rollouts.
+	 *
+	 * @return rollout policy
+	 */
+	public RolloutPolicy getRolloutPolicy()
+	{
+		return rolloutPolicy;
+	}
+
+	/**
+	 * Sets the policy of the moves of the Monte Carlo rollouts.
+	 *
+	 * @param rolloutPolicy
+	 *            rollout policy
+	 */
+	public void setRolloutPolicy(RolloutPolicy rolloutPolicy)
+	{
+		this.rolloutPolicy = rolloutPolicy;
+	}
+
+	/**
+	 * Returns the number of threads playing the Monte Carlo rollouts, and the iterations of the tree search.
+	 *
+	 * @return rollout threads
+	 */
+	public int getRolloutThreads()
+	{
+		return rolloutThreads;
+	}
+
+	/**
+	 * Sets the number of threads playing the Monte Carlo rollouts, and the iterations of the tree search on a shared tree. The result of the Monte Carlo engine does
+	 * not depend on it unless the budget stops the rollouts; the tree search is only reproducible on one thread.
+	 *
+	 * @param rolloutThreads
+	 *            rollout threads
+	 */
+	public void setRolloutThreads(int rolloutThreads)
+	{
+		this.rolloutThreads = rolloutThreads;
+	}
+
+	/**
+	 * Returns the number of iterations of the Monte Carlo tree search.
+	 *
+	 * @return iterations, 0 for none
+	 */
+	public int getIterations()
+	{
+		return iterations;
+	}
+
+	/**
+	 * Sets the number of iterations of the Monte Carlo tree search, each a descent of the tree and a rollout. The search stops when they are played or when the time or
+	 * node budget is spent, but not before every legal move has a rollout.
+	 *
+	 * @param iterations
+	 *            iterations, 0 for none, the time or node budget then stops the search and one of them must be set
+	 */
+	public void setIterations(int iterations)
+	{
+		if (iterations < 0)
+			throw new IllegalArgumentException("Number of iterations must not be negative: " + iterations);
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Returns the exploration constant of the Monte Carlo tree search.
+	 *
+	 * @return exploration constant
+	 */
+	public double getExploration()
+	{
+		return exploration;
+	}
+
+	/**
+	 * Sets the exploration constant of the UCT selection of the Monte Carlo tree search. The values of the moves are scaled by the mean final score of their parent, so
+	 * the constant does not depend on the stage of the game.
+	 *
+	 * @param exploration
+	 *            exploration constant
+	 */
+	public void setExploration(double exploration)
+	{
+		this.exploration = exploration;
+	}
+}
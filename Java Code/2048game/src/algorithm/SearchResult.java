@@ -0,0 +1,220 @@
+package algorithm;
+
+/**
+ * Outcome of one search for the next move.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public class SearchResult
+{
+	/**
+	 * Best direction found, null if no move is possible
+	 */
+	private final DirectionStatus	direction;
+
+	/**
+	 * Value of the best direction
+	 */
+	private final double			value;
+
+	/**
+	 * Depth searched
+	 */
+	private final int				depth;
+
+	/**
+	 * Number of nodes visited
+	 */
+	private final long				nodes;
+
+	/**
+	 * Time spent in the search, in nanoseconds
+	 */
+	private final long				elapsedNanos;
+
+	/**
+	 * Statistics of the search, null if they were not collected
+	 */
+	private final SearchStatistics	statistics;
+
+	/**
+	 * Number of rollouts played by the Monte Carlo engines, 0 for minimax and expectimax
+	 */
+	private final long				rollouts;
+
+	/**
+	 * Constructor
+	 *
+	 * @param direction
+	 *            best direction
+	 * @param value
+	 *            value of the best direction
+	 * @param depth
+	 *            depth searched
+	 * @param nodes
+	 *            number of nodes visited
+	 * @param elapsedNanos
+	 *            time spent in nanoseconds
+	 */
+	public SearchResult(DirectionStatus direction, double value, int depth, long nodes, long elapsedNanos)
+	{
+		this(direction, value, depth, nodes, elapsedNanos, null);
+	}
+
+	/**
+	 * Constructor of a result with statistics
+	 *
+	 * @param direction
+	 *            best direction
+	 * @param value
+	 *            value of the best direction
+	 * @param depth
+	 *            depth searched
+	 * @param nodes
+	 *            number of nodes visited
+	 * @param elapsedNanos
+	 *            time spent in nanoseconds
+	 * @param statistics
+	 *            statistics of the search, null if they were not collected
+	 */
+	public SearchResult(DirectionStatus direction, double value, int depth, long nodes, long elapsedNanos, SearchStatistics statistics)
+	{
+		this(direction, value, depth, nodes, elapsedNanos, statistics, 0);
+	}
+
+	/**
+	 * Constructor of a result of the Monte Carlo engine
+	 *
+	 * @param direction
+	 *            best direction
+	 * @param value
+	 *            value of the best direction
+	 * @param depth
+	 *            depth searched
+	 * @param nodes
+	 *            number of nodes visited
+	 * @param elapsedNanos
+	 *            time spent in nanoseconds
+	 * @param statistics
+	 *            statistics of the search, null if they were not collected
+	 * @param rollouts
+	 *            number of rollouts played
+	 */
+	public SearchResult(DirectionStatus direction, double value, int depth, long nodes, long elapsedNanos, SearchStatistics statistics, long rollouts)
+	{
+		this.direction = direction;
+		this.value = value;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.elapsedNanos = elapsedNanos;
+		this.statistics = statistics;
+		this.rollouts = rollouts;
+	}
+
+	/**
+	 * Returns the best direction.
+	 *
+	 * @return best direction, null if no move is possible
+	 */
+	public DirectionStatus getDirection()
+	{
+		return direction;
+	}
+
+	/**
+	 * Returns the value of the best direction.
+	 *
+	 * @return value
+	 */
+	public double getValue()
+	{
+		return value;
+	}
+
+	/**
+	 * Returns the depth searched.
+	 *
+	 * @return depth
+	 */
+	public int getDepth()
+	{
+		return depth;
+	}
+
+	/**
+	 * Returns the number of nodes visited.
+	 *
+	 * @return nodes
+	 */
+	public long getNodes()
+	{
+		return nodes;
+	}
+
+	/**
+	 * Returns the time spent in the search.
+	 *
+	 * @return elapsed time in nanoseconds
+	 */
+	public long getElapsedNanos()
+	{
+		return elapsedNanos;
+	}
+
+	/**
+	 * Returns the statistics of the search.
+	 *
+	 * @return statistics, null if they were not collected
+	 */
+	public SearchStatistics getStatistics()
+	{
+		return statistics;
+	}
+
+	/**
+	 * Returns the search speed.
+	 *
+	 * @return nodes visited per second
+	 */
+	public double getNodesPerSecond()
+	{
+		if (elapsedNanos == 0)
+			return 0;
+		return nodes * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * Returns the number of rollouts played by the Monte Carlo engines.
+	 *
+	 * @return rollouts, 0 for minimax and expectimax
+	 */
+	public long getRollouts()
+	{
+		return rollouts;
+	}
+
+	/**
+	 * Returns the rollout speed of the Monte Carlo engines.
+	 *
+	 * @return rollouts played per second, 0 for minimax and expectimax
+	 */
+	public double getRolloutsPerSecond()
+	{
+		if (elapsedNanos == 0)
+			return 0;
+		return rollouts * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * Returns a string description of this result.
+	 *
+	 * @return a string description of this result
+	 */
+	@Override
+	public String toString()
+	{
+		if (rollouts > 0)
+			return direction + " (value " + value + ", " + rollouts + " rollouts, " + String.format("%.0f", getRolloutsPerSecond()) + " rollouts/s, " + nodes + " moves)";
+		return direction + " (value " + value + ", depth " + depth + ", " + nodes + " nodes, " + String.format("%.0f", getNodesPerSecond()) + " nodes/s)";
+	}
+}
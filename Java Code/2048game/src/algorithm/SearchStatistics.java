@@ -0,0 +1,436 @@
+package algorithm;
+
+/**
+ * Statistics of one or more searches: the nodes visited at every ply, the cutoffs of the Alpha-Beta pruning and of the probability cutoff, the terminal nodes, the
+ * transposition table probes and hits, and the nodes and time of every iteration of the iterative deepening. Collected when
+ * {@link SearchOptions#setCollectStatistics(boolean)} is set and returned by {@link SearchResult#getStatistics()}. An instance is only updated by one thread: every
+ * parallel task counts into its own instance, merged into that of its parent when it completes, and the statistics of several searches can be added up with
+ * {@link #merge(SearchStatistics)}.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public class SearchStatistics
+{
+	/**
+	 * Number of plies and depths counted separately, deeper ones are counted with the last
+	 */
+	public static final int	MAX_DEPTH		= 32;
+
+	/**
+	 * Depth of the iteration being searched
+	 */
+	private int				rootDepth;
+
+	/**
+	 * Number of searches
+	 */
+	private long			searches;
+
+	/**
+	 * Number of nodes visited at every ply from the root, every iteration included
+	 */
+	private final long[]	nodesByPly		= new long[MAX_DEPTH];
+
+	/**
+	 * Number of terminal nodes, won or lost games
+	 */
+	private long			terminalNodes;
+
+	/**
+	 * Number of user nodes whose value reached beta
+	 */
+	private long			betaCutoffs;
+
+	/**
+	 * Number of computer nodes whose value fell to alpha
+	 */
+	private long			alphaCutoffs;
+
+	/**
+	 * Number of computer nodes whose value reached beta, cut by Star1
+	 */
+	private long			chanceBetaCutoffs;
+
+	/**
+	 * Number of user nodes evaluated by the heuristic because they are less likely than the probability cutoff
+	 */
+	private long			probabilityCutoffs;
+
+	/**
+	 * Number of nodes looked up in the transposition table
+	 */
+	private long			tableProbes;
+
+	/**
+	 * Number of nodes answered by the transposition table
+	 */
+	private long			tableHits;
+
+	/**
+	 * Number of completed iterations of every depth
+	 */
+	private final long[]	iterations		= new long[MAX_DEPTH];
+
+	/**
+	 * Number of nodes of the completed iterations of every depth
+	 */
+	private final long[]	iterationNodes	= new long[MAX_DEPTH];
+
+	/**
+	 * Time of the completed iterations of every depth, in nanoseconds
+	 */
+	private final long[]	iterationNanos	= new long[MAX_DEPTH];
+
+	/**
+	 * Number of iterations stopped by the budget
+	 */
+	private long			abortedIterations;
+
+	/**
+	 * Time of the iterations stopped by the budget, in nanoseconds
+	 */
+	private long			abortedNanos;
+
+	/**
+	 * Counts a new search.
+	 */
+	void countSearch()
+	{
+		++searches;
+	}
+
+	/**
+	 * Starts an iteration, the plies are then counted from its depth.
+	 *
+	 * @param depth
+	 *            depth of the iteration
+	 */
+	void beginIteration(int depth)
+	{
+		rootDepth = depth;
+	}
+
+	/**
+	 * Ends an iteration.
+	 *
+	 * @param depth
+	 *            depth of the iteration
+	 * @param nodes
+	 *            number of nodes visited
+	 * @param nanos
+	 *            time spent in nanoseconds
+	 * @param completed
+	 *            whether the iteration completed within the budget
+	 */
+	void endIteration(int depth, long nodes, long nanos, boolean completed)
+	{
+		if (!completed)
+		{
+			++abortedIterations;
+			abortedNanos += nanos;
+			return;
+		}
+		int index = Math.min(depth, MAX_DEPTH - 1);
+		++iterations[index];
+		iterationNodes[index] += nodes;
+		iterationNanos[index] += nanos;
+	}
+
+	/**
+	 * Counts a node.
+	 *
+	 * @param depth
+	 *            remaining depth of the node
+	 */
+	void countNode(int depth)
+	{
+		++nodesByPly[Math.min(rootDepth - depth, MAX_DEPTH - 1)];
+	}
+
+	/**
+	 * Counts a terminal node.
+	 */
+	void countTerminal()
+	{
+		++terminalNodes;
+	}
+
+	/**
+	 * Counts a user node whose remaining moves are pruned.
+	 */
+	void countBetaCutoff()
+	{
+		++betaCutoffs;
+	}
+
+	/**
+	 * Counts a computer node whose remaining tiles are pruned.
+	 */
+	void countAlphaCutoff()
+	{
+		++alphaCutoffs;
+	}
+
+	/**
+	 * Counts a computer node whose remaining tiles are pruned because its value reached beta.
+	 */
+	void countChanceBetaCutoff()
+	{
+		++chanceBetaCutoffs;
+	}
+
+	/**
+	 * Counts a user node evaluated by the heuristic because of the probability cutoff.
+	 */
+	void countProbabilityCutoff()
+	{
+		++probabilityCutoffs;
+	}
+
+	/**
+	 * Counts a lookup in the transposition table.
+	 *
+	 * @param hit
+	 *            whether the table answered
+	 */
+	void countTableProbe(boolean hit)
+	{
+		++tableProbes;
+		if (hit)
+			++tableHits;
+	}
+
+	/**
+	 * Creates the statistics of a parallel task of the current iteration, to be merged back when it completes.
+	 *
+	 * @return statistics of the task
+	 */
+	SearchStatistics split()
+	{
+		SearchStatistics part = new SearchStatistics();
+		part.rootDepth = rootDepth;
+		return part;
+	}
+
+	/**
+	 * Adds the counters of other statistics to these.
+	 *
+	 * @param other
+	 *            statistics of a parallel task or of another search
+	 */
+	public void merge(SearchStatistics other)
+	{
+		searches += other.searches;
+		for (int k = 0; k < MAX_DEPTH; ++k)
+		{
+			nodesByPly[k] += other.nodesByPly[k];
+			iterations[k] += other.iterations[k];
+			iterationNodes[k] += other.iterationNodes[k];
+			iterationNanos[k] += other.iterationNanos[k];
+		}
+		terminalNodes += other.terminalNodes;
+		betaCutoffs += other.betaCutoffs;
+		alphaCutoffs += other.alphaCutoffs;
+		chanceBetaCutoffs += other.chanceBetaCutoffs;
+		probabilityCutoffs += other.probabilityCutoffs;
+		tableProbes += other.tableProbes;
+		tableHits += other.tableHits;
+		abortedIterations += other.abortedIterations;
+		abortedNanos += other.abortedNanos;
+	}
+
+	/**
+	 * Returns the number of searches.
+	 *
+	 * @return searches
+	 */
+	public long getSearches()
+	{
+		return searches;
+	}
+
+	/**
+	 * Returns the number of nodes visited.
+	 *
+	 * @return nodes
+	 */
+	public long getNodes()
+	{
+		long nodes = 0;
+		for (long count : nodesByPly)
+			nodes += count;
+		return nodes;
+	}
+
+	/**
+	 * Returns the number of nodes visited at a ply from the root, every iteration included.
+	 *
+	 * @param ply
+	 *            distance from the root, the last ply also counts the deeper ones
+	 * @return nodes
+	 */
+	public long getNodesAtPly(int ply)
+	{
+		return nodesByPly[ply];
+	}
+
+	/**
+	 * Returns the number of terminal nodes, won or lost games.
+	 *
+	 * @return terminal nodes
+	 */
+	public long getTerminalNodes()
+	{
+		return terminalNodes;
+	}
+
+	/**
+	 * Returns the number of user nodes whose remaining moves were pruned.
+	 *
+	 * @return beta cutoffs
+	 */
+	public long getBetaCutoffs()
+	{
+		return betaCutoffs;
+	}
+
+	/**
+	 * Returns the number of computer nodes whose remaining tiles were pruned.
+	 *
+	 * @return alpha cutoffs
+	 */
+	public long getAlphaCutoffs()
+	{
+		return alphaCutoffs;
+	}
+
+	/**
+	 * Returns the number of computer nodes whose remaining tiles were pruned because their value reached beta.
+	 *
+	 * @return chance beta cutoffs
+	 */
+	public long getChanceBetaCutoffs()
+	{
+		return chanceBetaCutoffs;
+	}
+
+	/**
+	 * Returns the number of user nodes evaluated by the heuristic because of the probability cutoff.
+	 *
+	 * @return probability cutoffs
+	 */
+	public long getProbabilityCutoffs()
+	{
+		return probabilityCutoffs;
+	}
+
+	/**
+	 * Returns the number of nodes looked up in the transposition table.
+	 *
+	 * @return transposition table probes
+	 */
+	public long getTableProbes()
+	{
+		return tableProbes;
+	}
+
+	/**
+	 * Returns the number of nodes answered by the transposition table.
+	 *
+	 * @return transposition table hits
+	 */
+	public long getTableHits()
+	{
+		return tableHits;
+	}
+
+	/**
+	 * Returns the number of completed iterations of a depth.
+	 *
+	 * @param depth
+	 *            depth of the iterations
+	 * @return iterations
+	 */
+	public long getIterations(int depth)
+	{
+		return iterations[depth];
+	}
+
+	/**
+	 * Returns the mean number of nodes of the completed iterations of a depth.
+	 *
+	 * @param depth
+	 *            depth of the iterations
+	 * @return nodes per iteration, NaN if none completed
+	 */
+	public double getNodesPerIteration(int depth)
+	{
+		return iterations[depth] == 0 ? Double.NaN : (double) iterationNodes[depth] / iterations[depth];
+	}
+
+	/**
+	 * Returns the mean time of the completed iterations of a depth.
+	 *
+	 * @param depth
+	 *            depth of the iterations
+	 * @return nanoseconds per iteration, NaN if none completed
+	 */
+	public double getNanosPerIteration(int depth)
+	{
+		return iterations[depth] == 0 ? Double.NaN : (double) iterationNanos[depth] / iterations[depth];
+	}
+
+	/**
+	 * Returns the effective branching factor of a depth: how many times more nodes an iteration of this depth visits than one of the previous depth.
+	 *
+	 * @param depth
+	 *            depth of the iterations
+	 * @return effective branching factor, NaN unless both depths completed
+	 */
+	public double getEffectiveBranchingFactor(int depth)
+	{
+		if (depth < 2)
+			return Double.NaN;
+		return getNodesPerIteration(depth) / getNodesPerIteration(depth - 1);
+	}
+
+	/**
+	 * Returns the number of iterations stopped by the budget.
+	 *
+	 * @return aborted iterations
+	 */
+	public long getAbortedIterations()
+	{
+		return abortedIterations;
+	}
+
+	/**
+	 * Returns a report of the statistics, one line per ply and per depth.
+	 *
+	 * @return report
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder report = new StringBuilder();
+		long nodes = getNodes();
+		report.append(String.format("%d searches, %d nodes, %d terminal, %d beta cutoffs, %d alpha cutoffs", searches, nodes, terminalNodes, betaCutoffs, alphaCutoffs));
+		if (chanceBetaCutoffs > 0)
+			report.append(String.format(", %d chance beta cutoffs", chanceBetaCutoffs));
+		if (probabilityCutoffs > 0)
+			report.append(String.format(", %d probability cutoffs", probabilityCutoffs));
+		if (tableProbes > 0)
+			report.append(String.format(", transposition table %d hits of %d probes (%.1f%%)", tableHits, tableProbes, 100.0 * tableHits / tableProbes));
+		report.append(String.format("%n%5s %14s %7s%n", "ply", "nodes", "share"));
+		for (int ply = 0; ply < MAX_DEPTH; ++ply)
+			if (nodesByPly[ply] > 0)
+				report.append(String.format("%5d %14d %6.2f%%%n", ply, nodesByPly[ply], 100.0 * nodesByPly[ply] / nodes));
+		report.append(String.format("%5s %10s %14s %12s %6s%n", "depth", "iterations", "nodes/iter", "ms/iter", "EBF"));
+		for (int depth = 0; depth < MAX_DEPTH; ++depth)
+			if (iterations[depth] > 0)
+				report.append(String.format("%5d %10d %14.0f %12.3f %6.2f%n", depth, iterations[depth], getNodesPerIteration(depth), getNanosPerIteration(depth) / 1e6,
+						getEffectiveBranchingFactor(depth)));
+		report.append(String.format("%d iterations stopped by the budget, %.1f ms", abortedIterations, abortedNanos / 1e6));
+		return report.toString();
+	}
+}
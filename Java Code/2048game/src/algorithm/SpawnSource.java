@@ -0,0 +1,35 @@
+package algorithm;
+
+/**
+ * Source of the random choices that place the new tiles of a game: the empty cell that receives a tile, and whether the tile is a 4 rather than a 2.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public interface SpawnSource
+{
+	/**
+	 * Probability of a new 2 tile
+	 */
+	double PROBABILITY_OF_TWO = 0.9;
+
+	/**
+	 * Probability of a new 4 tile
+	 */
+	double PROBABILITY_OF_FOUR = 1 - PROBABILITY_OF_TWO;
+
+	/**
+	 * Picks the empty cell of a new tile.
+	 *
+	 * @param numberOfEmptyCells
+	 *            number of empty cells, positive
+	 * @return index of the cell among the empty cells in cell order
+	 */
+	int nextCell(int numberOfEmptyCells);
+
+	/**
+	 * Picks the value of a new tile.
+	 *
+	 * @return whether the tile is a 4 rather than a 2
+	 */
+	boolean nextIsFour();
+}
@@ -0,0 +1,69 @@
+package algorithm;
+
+import java.util.SplittableRandom;
+
+/**
+ * Spawn source backed by a {@link SplittableRandom}. It is not shared between threads: every game takes its own stream, split from a master source, so a batch of games
+ * is reproducible from the seed of the master whatever thread plays which game.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public class SplittableSpawnSource implements SpawnSource
+{
+	/**
+	 * Random generator
+	 */
+	private final SplittableRandom	random;
+
+	/**
+	 * Constructor of a source seeded differently from every other unseeded source.
+	 */
+	public SplittableSpawnSource()
+	{
+		this(new SplittableRandom());
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param seed
+	 *            seed
+	 */
+	public SplittableSpawnSource(long seed)
+	{
+		this(new SplittableRandom(seed));
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param random
+	 *            random generator, not shared with other sources
+	 */
+	private SplittableSpawnSource(SplittableRandom random)
+	{
+		this.random = random;
+	}
+
+	/**
+	 * Creates an independent source, typically for one game. The sources split from a master source in the same order are the same on every run.
+	 *
+	 * @return new source
+	 */
+	public SplittableSpawnSource split()
+	{
+		return new SplittableSpawnSource(random.split());
+	}
+
+	@Override
+	public int nextCell(int numberOfEmptyCells)
+	{
+		return random.nextInt(numberOfEmptyCells);
+	}
+
+	@Override
+	public boolean nextIsFour()
+	{
+		return random.nextDouble() >= PROBABILITY_OF_TWO;
+	}
+}
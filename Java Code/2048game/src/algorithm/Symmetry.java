@@ -0,0 +1,247 @@
+package algorithm;
+
+/**
+ * The 8 rotations and reflections of a {@link BitBoard}. A board and its images play the same way once the directions are remapped, so a cache of a symmetric evaluation
+ * can store one entry per class, keyed by the canonical representative, and translate the stored direction back. The heuristic of {@link Evaluator} is not symmetric,
+ * so the transposition table of the searches keeps raw keys.
+ * <p>
+ * A transform is a number from 0 to 7. Bit 2 transposes the board, then bit 0 mirrors the columns and bit 1 mirrors the rows. Transform 0 is the identity.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public final class Symmetry
+{
+	/**
+	 * Number of transforms
+	 */
+	public static final int					TRANSFORM_COUNT	= 8;
+
+	/**
+	 * The identity transform
+	 */
+	public static final int					IDENTITY		= 0;
+
+	/**
+	 * Bit of the column mirror
+	 */
+	private static final int				MIRROR_COLUMNS	= 1;
+
+	/**
+	 * Bit of the row mirror
+	 */
+	private static final int				MIRROR_ROWS		= 2;
+
+	/**
+	 * Bit of the transposition
+	 */
+	private static final int				TRANSPOSE		= 4;
+
+	/**
+	 * Image of every direction under every transform, indexed by transform and direction code
+	 */
+	private static final DirectionStatus[][]	FORWARD			= new DirectionStatus[TRANSFORM_COUNT][];
+
+	/**
+	 * Preimage of every direction under every transform, indexed by transform and direction code
+	 */
+	private static final DirectionStatus[][]	BACKWARD		= new DirectionStatus[TRANSFORM_COUNT][];
+
+	static
+	{
+		DirectionStatus[] directions = DirectionStatus.values();
+		for (int transform = 0; transform < TRANSFORM_COUNT; ++transform)
+		{
+			FORWARD[transform] = new DirectionStatus[directions.length];
+			BACKWARD[transform] = new DirectionStatus[directions.length];
+			for (DirectionStatus direction : directions)
+			{
+				DirectionStatus image = direction;
+				if ((transform & TRANSPOSE) != 0)
+					image = transposed(image);
+				if ((transform & MIRROR_COLUMNS) != 0)
+					image = mirroredColumns(image);
+				if ((transform & MIRROR_ROWS) != 0)
+					image = mirroredRows(image);
+				FORWARD[transform][direction.getCode()] = image;
+				BACKWARD[transform][image.getCode()] = direction;
+			}
+		}
+	}
+
+	/**
+	 * Not instantiable.
+	 */
+	private Symmetry()
+	{
+	}
+
+	/**
+	 * Applies a transform to a board.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param transform
+	 *            transform, 0 to 7
+	 * @return transformed packed board
+	 */
+	public static long transform(long board, int transform)
+	{
+		if ((transform & TRANSPOSE) != 0)
+			board = BitBoard.transpose(board);
+		if ((transform & MIRROR_COLUMNS) != 0)
+			board = mirrorColumns(board);
+		if ((transform & MIRROR_ROWS) != 0)
+			board = mirrorRows(board);
+		return board;
+	}
+
+	/**
+	 * Finds the transform that maps a board to the canonical representative of its class, the smallest of its 8 images.
+	 *
+	 * @param board
+	 *            packed board
+	 * @return transform, 0 to 7
+	 */
+	public static int canonicalTransform(long board)
+	{
+		long transposed = BitBoard.transpose(board);
+		int best = IDENTITY;
+		long bestBoard = board;
+		for (int transform = 1; transform < TRANSFORM_COUNT; ++transform)
+		{
+			long image = (transform & TRANSPOSE) != 0 ? transposed : board;
+			if ((transform & MIRROR_COLUMNS) != 0)
+				image = mirrorColumns(image);
+			if ((transform & MIRROR_ROWS) != 0)
+				image = mirrorRows(image);
+			if (image < bestBoard)
+			{
+				bestBoard = image;
+				best = transform;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the canonical representative of the class of a board.
+	 *
+	 * @param board
+	 *            packed board
+	 * @return canonical packed board
+	 */
+	public static long canonicalize(long board)
+	{
+		return transform(board, canonicalTransform(board));
+	}
+
+	/**
+	 * Maps a direction on a board to the equivalent direction on the transformed board.
+	 *
+	 * @param direction
+	 *            direction on the original board
+	 * @param transform
+	 *            transform, 0 to 7
+	 * @return direction on the transformed board, null if the given direction is null
+	 */
+	public static DirectionStatus toTransformed(DirectionStatus direction, int transform)
+	{
+		if (direction == null)
+			return null;
+		return FORWARD[transform][direction.getCode()];
+	}
+
+	/**
+	 * Maps a direction on a transformed board back to the equivalent direction on the original board.
+	 *
+	 * @param direction
+	 *            direction on the transformed board
+	 * @param transform
+	 *            transform, 0 to 7
+	 * @return direction on the original board, null if the given direction is null
+	 */
+	public static DirectionStatus toOriginal(DirectionStatus direction, int transform)
+	{
+		if (direction == null)
+			return null;
+		return BACKWARD[transform][direction.getCode()];
+	}
+
+	/**
+	 * Reverses the order of the cells of every row.
+	 *
+	 * @param board
+	 *            packed board
+	 * @return mirrored packed board
+	 */
+	private static long mirrorColumns(long board)
+	{
+		return ((board & 0xF000F000F000F000L) >>> 12) | ((board & 0x0F000F000F000F00L) >>> 4) | ((board & 0x00F000F000F000F0L) << 4) | ((board & 0x000F000F000F000FL) << 12);
+	}
+
+	/**
+	 * Reverses the order of the rows.
+	 *
+	 * @param board
+	 *            packed board
+	 * @return mirrored packed board
+	 */
+	private static long mirrorRows(long board)
+	{
+		return (board << 48) | ((board & 0xFFFF0000L) << 16) | ((board >>> 16) & 0xFFFF0000L) | (board >>> 48);
+	}
+
+	/**
+	 * Direction after a transposition.
+	 *
+	 * @param direction
+	 *            direction
+	 * @return transposed direction
+	 */
+	private static DirectionStatus transposed(DirectionStatus direction)
+	{
+		switch (direction)
+		{
+			case UP:
+				return DirectionStatus.LEFT;
+			case LEFT:
+				return DirectionStatus.UP;
+			case DOWN:
+				return DirectionStatus.RIGHT;
+			default:
+				return DirectionStatus.DOWN;
+		}
+	}
+
+	/**
+	 * Direction after a column mirror.
+	 *
+	 * @param direction
+	 *            direction
+	 * @return mirrored direction
+	 */
+	private static DirectionStatus mirroredColumns(DirectionStatus direction)
+	{
+		if (direction == DirectionStatus.LEFT)
+			return DirectionStatus.RIGHT;
+		if (direction == DirectionStatus.RIGHT)
+			return DirectionStatus.LEFT;
+		return direction;
+	}
+
+	/**
+	 * Direction after a row mirror.
+	 *
+	 * @param direction
+	 *            direction
+	 * @return mirrored direction
+	 */
+	private static DirectionStatus mirroredRows(DirectionStatus direction)
+	{
+		if (direction == DirectionStatus.UP)
+			return DirectionStatus.DOWN;
+		if (direction == DirectionStatus.DOWN)
+			return DirectionStatus.UP;
+		return direction;
+	}
+}
@@ -0,0 +1,311 @@
+package algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size transposition table keyed by a 64-bit board hash, usually the {@link BitBoard} itself.
+ * <p>
+ * Entries live in a primitive <code>long[]</code>, two slots per entry: the key XOR the data, and the data. The data packs the value (as a float), the depth, the bound type
+ * and the best direction. A reader recomputes the XOR and discards the entry if it does not give back the key, so an entry torn by a concurrent writer is never used. Reads
+ * and writes take no lock and the table can be shared by any number of searching threads.
+ * <p>
+ * Collisions are resolved by open addressing over a small window of consecutive entries. When the window is full the replacement policy picks the entry to overwrite.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public class TranspositionTable
+{
+	/**
+	 * Type of the stored value
+	 */
+	public enum Bound
+	{
+		/**
+		 * Exact value
+		 */
+		EXACT,
+		/**
+		 * The real value is at least the stored value
+		 */
+		LOWER,
+		/**
+		 * The real value is at most the stored value
+		 */
+		UPPER
+	}
+
+	/**
+	 * Choice of the entry to overwrite when the probe window is full
+	 */
+	public enum ReplacementPolicy
+	{
+		/**
+		 * Always overwrite the first entry of the window
+		 */
+		ALWAYS,
+		/**
+		 * Overwrite the entry of the window searched to the smallest depth
+		 */
+		DEPTH_PREFERRED
+	}
+
+	/**
+	 * Returned by {@link #probe(long)} when the key is not in the table
+	 */
+	public static final long				MISS			= 0L;
+
+	/**
+	 * Default number of entries
+	 */
+	public static final int					DEFAULT_SIZE	= 1 << 20;
+
+	/**
+	 * Number of consecutive entries searched for a key
+	 */
+	private static final int				PROBE_WINDOW	= 4;
+
+	/**
+	 * Set in the data of every stored entry, so that a stored entry is never equal to {@link #MISS}
+	 */
+	private static final long				VALID			= 1L << 63;
+
+	/**
+	 * Bit offset of the depth in the data
+	 */
+	private static final int				DEPTH_SHIFT		= 32;
+
+	/**
+	 * Bit offset of the bound type in the data
+	 */
+	private static final int				BOUND_SHIFT		= 40;
+
+	/**
+	 * Bit offset of the direction in the data
+	 */
+	private static final int				DIRECTION_SHIFT	= 42;
+
+	/**
+	 * Bound types by ordinal
+	 */
+	private static final Bound[]			BOUNDS			= Bound.values();
+
+	/**
+	 * Directions by code
+	 */
+	private static final DirectionStatus[]	DIRECTIONS		= DirectionStatus.values();
+
+	/**
+	 * Entries, two slots each
+	 */
+	private final long[]					slots;
+
+	/**
+	 * Number of bits of the entry index
+	 */
+	private final int						indexBits;
+
+	/**
+	 * Replacement policy
+	 */
+	private final ReplacementPolicy			policy;
+
+	/**
+	 * Constructor of a table of the default size with depth-preferred replacement.
+	 */
+	public TranspositionTable()
+	{
+		this(DEFAULT_SIZE, ReplacementPolicy.DEPTH_PREFERRED);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param size
+	 *            number of entries, rounded up to a power of two
+	 * @param policy
+	 *            replacement policy
+	 */
+	public TranspositionTable(int size, ReplacementPolicy policy)
+	{
+		if (size <= 0 || size > 1 << 29)
+			throw new IllegalArgumentException("Invalid transposition table size: " + size);
+		int bits = 32 - Integer.numberOfLeadingZeros(size - 1);
+		indexBits = Math.max(bits, 2);
+		slots = new long[2 << indexBits];
+		this.policy = policy;
+	}
+
+	/**
+	 * Returns the number of entries.
+	 *
+	 * @return number of entries
+	 */
+	public int getSize()
+	{
+		return slots.length >>> 1;
+	}
+
+	/**
+	 * Returns the replacement policy.
+	 *
+	 * @return replacement policy
+	 */
+	public ReplacementPolicy getPolicy()
+	{
+		return policy;
+	}
+
+	/**
+	 * Looks a key up.
+	 *
+	 * @param key
+	 *            board hash
+	 * @return packed data of the entry, {@link #MISS} if the key is not in the table
+	 */
+	public long probe(long key)
+	{
+		int mask = getSize() - 1;
+		int index = home(key);
+		for (int k = 0; k < PROBE_WINDOW; ++k)
+		{
+			int slot = ((index + k) & mask) << 1;
+			long data = slots[slot + 1];
+			if (data != MISS && (slots[slot] ^ data) == key)
+				return data;
+		}
+		return MISS;
+	}
+
+	/**
+	 * Stores an entry. An entry already stored for the key is always overwritten, even if it was searched deeper: {@link Expectimax} only uses an entry of the depth it
+	 * searches, so keeping the deeper entry would stop the shallower iterations of an iterative deepening search from caching the board at all.
+	 *
+	 * @param key
+	 *            board hash
+	 * @param depth
+	 *            depth searched, 0 to 255
+	 * @param value
+	 *            value
+	 * @param bound
+	 *            type of the value
+	 * @param direction
+	 *            best direction, null if none
+	 */
+	public void store(long key, int depth, double value, Bound bound, DirectionStatus direction)
+	{
+		long data = VALID | (Float.floatToIntBits((float) value) & 0xFFFFFFFFL) | ((long) (depth & 0xFF) << DEPTH_SHIFT) | ((long) bound.ordinal() << BOUND_SHIFT)
+				| ((long) (direction == null ? 0 : direction.getCode() + 1) << DIRECTION_SHIFT);
+		int mask = getSize() - 1;
+		int index = home(key);
+		int victim = index << 1;
+		int victimDepth = Integer.MAX_VALUE;
+		for (int k = 0; k < PROBE_WINDOW; ++k)
+		{
+			int slot = ((index + k) & mask) << 1;
+			long stored = slots[slot + 1];
+			if (stored == MISS)
+			{
+				write(slot, key, data);
+				return;
+			}
+			if ((slots[slot] ^ stored) == key)
+			{
+				write(slot, key, data);
+				return;
+			}
+			if (policy == ReplacementPolicy.DEPTH_PREFERRED && getDepth(stored) < victimDepth)
+			{
+				victim = slot;
+				victimDepth = getDepth(stored);
+			}
+		}
+		write(victim, key, data);
+	}
+
+	/**
+	 * Removes every entry.
+	 */
+	public void clear()
+	{
+		Arrays.fill(slots, 0L);
+	}
+
+	/**
+	 * Returns the depth of an entry.
+	 *
+	 * @param data
+	 *            packed data returned by {@link #probe(long)}
+	 * @return depth
+	 */
+	public static int getDepth(long data)
+	{
+		return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+	}
+
+	/**
+	 * Returns the value of an entry.
+	 *
+	 * @param data
+	 *            packed data returned by {@link #probe(long)}
+	 * @return value
+	 */
+	public static double getValue(long data)
+	{
+		return Float.intBitsToFloat((int) data);
+	}
+
+	/**
+	 * Returns the bound type of an entry.
+	 *
+	 * @param data
+	 *            packed data returned by {@link #probe(long)}
+	 * @return bound type
+	 */
+	public static Bound getBound(long data)
+	{
+		return BOUNDS[(int) (data >>> BOUND_SHIFT) & 0x3];
+	}
+
+	/**
+	 * Returns the best direction of an entry.
+	 *
+	 * @param data
+	 *            packed data returned by {@link #probe(long)}
+	 * @return best direction, null if none was stored
+	 */
+	public static DirectionStatus getDirection(long data)
+	{
+		int code = (int) (data >>> DIRECTION_SHIFT) & 0x7;
+		if (code == 0)
+			return null;
+		return DIRECTIONS[code - 1];
+	}
+
+	/**
+	 * Index of the first entry of the probe window of a key.
+	 *
+	 * @param key
+	 *            board hash
+	 * @return entry index
+	 */
+	private int home(long key)
+	{
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - indexBits));
+	}
+
+	/**
+	 * Writes one entry. A reader that sees the two slots from different writes fails the key check in {@link #probe(long)}.
+	 *
+	 * @param slot
+	 *            first slot of the entry
+	 * @param key
+	 *            board hash
+	 * @param data
+	 *            packed data
+	 */
+	private void write(int slot, long key, long data)
+	{
+		slots[slot] = key ^ data;
+		slots[slot + 1] = data;
+	}
+}
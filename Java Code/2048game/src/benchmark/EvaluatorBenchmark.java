@@ -0,0 +1,197 @@
+package benchmark;
+
+import java.util.List;
+import java.util.Random;
+import algorithm.BitBoard;
+import algorithm.Board;
+import algorithm.Evaluator;
+
+/**
+ * Checks the table-driven {@link Evaluator} against the cell by cell heuristic it replaced, and measures both. The boards are the positions of self-play games and
+ * random boards. Every board must get the same score, and every pair of consecutive boards must be ranked the same way.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public class EvaluatorBenchmark
+{
+	/**
+	 * Entry point.
+	 *
+	 * @param args
+	 *            number of random boards, number of self-play games and seed, all optional
+	 */
+	public static void main(String[] args)
+	{
+		int randomBoards = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int games = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 2048;
+		Random random = new Random(seed);
+		List<long[]> corpus = SelfPlay.recordTrace(games, 2, random);
+		for (int k = 0; k < randomBoards; ++k)
+		{
+			long board = BitBoard.EMPTY_BOARD;
+			int largest = 1 + random.nextInt(BitBoard.MAX_EXPONENT);
+			for (int cellId = 0; cellId < BitBoard.CELL_COUNT; ++cellId)
+				if (random.nextInt(4) != 0)
+					board = BitBoard.setExponent(board, cellId, random.nextInt(largest + 1));
+			corpus.add(new long[] { board, random.nextInt(2) * random.nextInt(100000) });
+		}
+		int[] expected = new int[corpus.size()];
+		int[] actual = new int[corpus.size()];
+		for (int k = 0; k < corpus.size(); ++k)
+		{
+			expected[k] = referenceScore(corpus.get(k)[0], (int) corpus.get(k)[1]);
+			actual[k] = Evaluator.heuristicScore(corpus.get(k)[0], (int) corpus.get(k)[1]);
+		}
+		int different = 0;
+		int misranked = 0;
+		for (int k = 0; k < corpus.size(); ++k)
+		{
+			if (expected[k] != actual[k])
+				++different;
+			if (k > 0 && Integer.signum(expected[k] - expected[k - 1]) != Integer.signum(actual[k] - actual[k - 1]))
+				++misranked;
+		}
+		System.out.println(corpus.size() + " boards: " + different + " scored differently, " + misranked + " pairs ranked differently");
+		for (int round = 0; round < 3; ++round)
+		{
+			long start = System.nanoTime();
+			long checksum = 0;
+			for (long[] position : corpus)
+				checksum += referenceScore(position[0], (int) position[1]);
+			double referenceNanos = (double) (System.nanoTime() - start) / corpus.size();
+			start = System.nanoTime();
+			for (long[] position : corpus)
+				checksum -= Evaluator.heuristicScore(position[0], (int) position[1]);
+			double tableNanos = (double) (System.nanoTime() - start) / corpus.size();
+			System.out.println(String.format("cell by cell %6.1f ns, tables %6.1f ns, speedup %5.2f (checksum %d)", referenceNanos, tableNanos, referenceNanos / tableNanos,
+					checksum));
+		}
+		if (different > 0 || misranked > 0)
+			System.exit(1);
+	}
+
+	/**
+	 * The cell by cell heuristic the searches used before the {@link Evaluator}.
+	 *
+	 * @param board
+	 *            packed board
+	 * @param actualScore
+	 *            actual score
+	 * @return heuristic score
+	 */
+	private static int referenceScore(long board, int actualScore)
+	{
+		int[][] boardArray = BitBoard.toArray(board);
+		int score = (int) (monotonocity(boardArray) + BitBoard.countEmptyCells(board) + mergeScore(boardArray) + BitBoard.toValue(BitBoard.maxExponent(board)));
+		return Math.max(score, Math.min(actualScore, 1));
+	}
+
+	/**
+	 * Merge score heuristic, its bounds check is the exception of the array access.
+	 *
+	 * @param boardArray
+	 *            game board
+	 * @return merge score
+	 */
+	private static int mergeScore(int[][] boardArray)
+	{
+		int mergeScore = 0;
+		int size = boardArray.length;
+		for (int i = 0; i < size; i++)
+		{
+			for (int j = 0; j < size; j++)
+			{
+				try
+				{
+					if (boardArray[i][j] == boardArray[i][j + 1] && boardArray[i][j] != 0)
+						mergeScore++;
+					if (boardArray[i][j] == boardArray[i + 1][j] && boardArray[i][j] != 0)
+						mergeScore++;
+					if (boardArray[i][j] == boardArray[i][j - 1] && boardArray[i][j] != 0)
+						mergeScore++;
+					if (boardArray[i][j] == boardArray[i - 1][j] && boardArray[i][j] != 0)
+						mergeScore++;
+					if (i == 0)
+					{
+						if (boardArray[i][j] == boardArray[size - 1][j] && boardArray[i][j] != 0)
+							mergeScore++;
+					}
+					if (i == size - 1)
+					{
+						if (boardArray[i][j] == boardArray[0][j] && boardArray[i][j] != 0)
+							mergeScore++;
+					}
+					if (j == 0)
+					{
+						if (boardArray[i][j] == boardArray[i][size - 1] && boardArray[i][j] != 0)
+							mergeScore++;
+					}
+					if (j == size - 1)
+					{
+						if (boardArray[i][j] == boardArray[i][0] && boardArray[i][j] != 0)
+							mergeScore++;
+					}
+				}
+				catch (ArrayIndexOutOfBoundsException e)
+				{
+
+				}
+			}
+		}
+		return mergeScore;
+	}
+
+	/**
+	 * Monotonicity Heuristic
+	 *
+	 * @param boardArray
+	 *            board
+	 * @return monotonicity count
+	 */
+	private static double monotonocity(int[][] boardArray)
+	{
+		double[] totals = { 0, 0, 0, 0 };
+		for (int i = 0; i < Board.BOARD_SIZE; i++)
+		{
+			int current = 0;
+			int next = current + 1;
+			while (next < Board.BOARD_SIZE)
+			{
+				while (next < Board.BOARD_SIZE && boardArray[i][next] == 0)
+					next++;
+				if (next >= Board.BOARD_SIZE)
+					next--;
+				double currentValue = boardArray[i][current] != 0 ? Math.log(boardArray[i][current]) / Math.log(2) : 0;
+				double nextValue = boardArray[i][next] != 0 ? Math.log(boardArray[i][next]) / Math.log(2) : 0;
+				if (currentValue > nextValue)
+					totals[0] += nextValue - currentValue;
+				else if (nextValue > currentValue)
+					totals[1] += currentValue - nextValue;
+				current = next;
+				next++;
+			}
+		}
+		for (int i = 0; i < Board.BOARD_SIZE; i++)
+		{
+			int current = 0;
+			int next = current + 1;
+			while (next < Board.BOARD_SIZE)
+			{
+				while (next < Board.BOARD_SIZE && boardArray[next][i] == 0)
+					next++;
+				if (next >= Board.BOARD_SIZE)
+					next--;
+				double currentValue = boardArray[current][i] != 0 ? Math.log(boardArray[current][i]) / Math.log(2) : 0;
+				double nextValue = boardArray[next][i] != 0 ? Math.log(boardArray[next][i]) / Math.log(2) : 0;
+				if (currentValue > nextValue)
+					totals[2] += nextValue - currentValue;
+				else if (nextValue > currentValue)
+					totals[3] += currentValue - nextValue;
+				current = next;
+				next++;
+			}
+		}
+		return Math.max(totals[0], totals[1]) + Math.max(totals[2], totals[3]);
+	}
+}
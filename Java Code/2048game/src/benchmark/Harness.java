@@ -0,0 +1,325 @@
+package benchmark;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Times operations the way JMH does in its average time mode: warmup iterations, then measurement iterations of a fixed duration, each reporting the mean time per
+ * operation. The score is the mean over the measurement iterations and its error is the half width of the 99.9% confidence interval. Every operation returns a value
+ * that is folded into a sink, so the JIT cannot drop the work.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+class Harness
+{
+	/**
+	 * Two-sided 99.9% quantiles of the Student t distribution, indexed by degrees of freedom
+	 */
+	private static final double[]	T_999			= { Double.NaN, 636.62, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587, 4.437, 4.318, 4.221,
+			4.140, 4.073, 4.015, 3.965, 3.922, 3.883, 3.850 };
+
+	/**
+	 * Two-sided 99.9% quantile of the normal distribution, for more degrees of freedom than {@link #T_999} holds
+	 */
+	private static final double		Z_999			= 3.291;
+
+	/**
+	 * Shortest time between two reads of the clock, in nanoseconds
+	 */
+	private static final long		BATCH_NANOS		= 100000;
+
+	/**
+	 * Number of warmup iterations
+	 */
+	private int						warmupIterations	= 3;
+
+	/**
+	 * Number of measurement iterations
+	 */
+	private int						iterations			= 5;
+
+	/**
+	 * Duration of an iteration in milliseconds
+	 */
+	private long					iterationMillis		= 1000;
+
+	/**
+	 * Results so far
+	 */
+	private final List<Result>		results				= new ArrayList<>();
+
+	/**
+	 * Sink of the values returned by the operations
+	 */
+	private long					sink;
+
+	/**
+	 * One benchmarked operation.
+	 */
+	interface Operation
+	{
+		/**
+		 * Runs the operation once.
+		 *
+		 * @param index
+		 *            number of the invocation, to pick the input
+		 * @return any value depending on the work done
+		 * @throws Exception
+		 *             failure of the operation
+		 */
+		long run(int index) throws Exception;
+	}
+
+	/**
+	 * Sets the number of warmup iterations.
+	 *
+	 * @param warmupIterations
+	 *            number of warmup iterations
+	 */
+	void setWarmupIterations(int warmupIterations)
+	{
+		this.warmupIterations = warmupIterations;
+	}
+
+	/**
+	 * Sets the number of measurement iterations.
+	 *
+	 * @param iterations
+	 *            number of measurement iterations
+	 */
+	void setIterations(int iterations)
+	{
+		if (iterations < 1)
+			throw new IllegalArgumentException("Number of iterations must be positive: " + iterations);
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Sets the duration of an iteration.
+	 *
+	 * @param iterationMillis
+	 *            duration in milliseconds
+	 */
+	void setIterationMillis(long iterationMillis)
+	{
+		this.iterationMillis = iterationMillis;
+	}
+
+	/**
+	 * Times an operation and keeps its result.
+	 *
+	 * @param name
+	 *            name of the benchmark
+	 * @param params
+	 *            parameters, for the machine-readable output, may be empty
+	 * @param operation
+	 *            operation
+	 * @return result
+	 * @throws Exception
+	 *             failure of the operation
+	 */
+	Result measure(String name, String params, Operation operation) throws Exception
+	{
+		int batch = 1;
+		int index = 0;
+		for (int k = 0; k < warmupIterations + iterations; ++k)
+		{
+			if (k == warmupIterations)
+				index = 0;
+			long operations = 0;
+			long start = System.nanoTime();
+			long end = start + iterationMillis * 1000000L;
+			long now = start;
+			while (now < end)
+			{
+				long batchStart = now;
+				for (int i = 0; i < batch; ++i)
+					sink += operation.run(index++);
+				operations += batch;
+				now = System.nanoTime();
+				if (k < warmupIterations && now - batchStart < BATCH_NANOS && batch < (1 << 20))
+					batch *= 2;
+			}
+			if (k >= warmupIterations)
+			{
+				if (k == warmupIterations)
+					results.add(new Result(name, params, iterations));
+				results.get(results.size() - 1).samples[k - warmupIterations] = (double) (now - start) / operations;
+			}
+		}
+		return results.get(results.size() - 1);
+	}
+
+	/**
+	 * Returns the results so far.
+	 *
+	 * @return results
+	 */
+	List<Result> getResults()
+	{
+		return results;
+	}
+
+	/**
+	 * Returns the sink of the values returned by the operations, to be printed so it is used.
+	 *
+	 * @return sink
+	 */
+	long getSink()
+	{
+		return sink;
+	}
+
+	/**
+	 * Prints the results as comma separated values, one line per benchmark.
+	 *
+	 * @param out
+	 *            stream
+	 */
+	void printCsv(PrintStream out)
+	{
+		out.println("benchmark,params,mode,iterations,score,error,unit");
+		for (Result result : results)
+			out.println(String.format(Locale.ROOT, "%s,\"%s\",avgt,%d,%.3f,%.3f,ns/op", result.name, result.params, result.samples.length, result.getScore(),
+					result.getError()));
+	}
+
+	/**
+	 * Prints the results in the layout of the JSON output of JMH, so the same tools can read them.
+	 *
+	 * @param out
+	 *            stream
+	 */
+	void printJson(PrintStream out)
+	{
+		out.println("[");
+		for (int k = 0; k < results.size(); ++k)
+		{
+			Result result = results.get(k);
+			out.println("    {");
+			out.println("        \"benchmark\" : \"" + result.name + "\",");
+			out.println("        \"mode\" : \"avgt\",");
+			out.println("        \"warmupIterations\" : " + warmupIterations + ",");
+			out.println("        \"measurementIterations\" : " + result.samples.length + ",");
+			out.println("        \"params\" : {" + jsonParams(result.params) + "},");
+			out.println("        \"primaryMetric\" : {");
+			out.println(String.format(Locale.ROOT, "            \"score\" : %.3f,", result.getScore()));
+			out.println(String.format(Locale.ROOT, "            \"scoreError\" : %.3f,", result.getError()));
+			out.println("            \"scoreUnit\" : \"ns/op\",");
+			StringBuilder samples = new StringBuilder();
+			for (double sample : result.samples)
+				samples.append(samples.length() == 0 ? "" : ", ").append(String.format(Locale.ROOT, "%.3f", sample));
+			out.println("            \"rawData\" : [ [ " + samples + " ] ]");
+			out.println("        }");
+			out.println(k + 1 < results.size() ? "    }," : "    }");
+		}
+		out.println("]");
+	}
+
+	/**
+	 * Formats parameters written as name=value pairs separated by spaces as the members of a JSON object.
+	 *
+	 * @param params
+	 *            parameters
+	 * @return JSON members
+	 */
+	private static String jsonParams(String params)
+	{
+		StringBuilder json = new StringBuilder();
+		for (String param : params.split(" "))
+		{
+			int equals = param.indexOf('=');
+			if (equals < 0)
+				continue;
+			json.append(json.length() == 0 ? " " : ", ").append('"').append(param.substring(0, equals)).append("\" : \"").append(param.substring(equals + 1)).append('"');
+		}
+		return json.length() == 0 ? "" : json + " ";
+	}
+
+	/**
+	 * Result of one benchmark.
+	 */
+	static class Result
+	{
+		/**
+		 * Name of the benchmark
+		 */
+		private final String	name;
+
+		/**
+		 * Parameters, name=value pairs separated by spaces
+		 */
+		private final String	params;
+
+		/**
+		 * Mean time per operation of every measurement iteration, in nanoseconds
+		 */
+		private final double[]	samples;
+
+		/**
+		 * Constructor
+		 *
+		 * @param name
+		 *            name of the benchmark
+		 * @param params
+		 *            parameters
+		 * @param iterations
+		 *            number of measurement iterations
+		 */
+		Result(String name, String params, int iterations)
+		{
+			this.name = name;
+			this.params = params;
+			this.samples = new double[iterations];
+		}
+
+		/**
+		 * Returns the name of the benchmark.
+		 *
+		 * @return name
+		 */
+		String getName()
+		{
+			return name;
+		}
+
+		/**
+		 * Returns the mean time per operation.
+		 *
+		 * @return score in nanoseconds
+		 */
+		double getScore()
+		{
+			double total = 0;
+			for (double sample : samples)
+				total += sample;
+			return total / samples.length;
+		}
+
+		/**
+		 * Returns the half width of the 99.9% confidence interval of the score.
+		 *
+		 * @return error in nanoseconds, NaN with a single iteration
+		 */
+		double getError()
+		{
+			int n = samples.length;
+			if (n < 2)
+				return Double.NaN;
+			double score = getScore();
+			double squares = 0;
+			for (double sample : samples)
+				squares += (sample - score) * (sample - score);
+			double t = n - 1 < T_999.length ? T_999[n - 1] : Z_999;
+			return t * Math.sqrt(squares / (n - 1)) / Math.sqrt(n);
+		}
+
+		@Override
+		public String toString()
+		{
+			return String.format("%-40s %-22s %14.1f +- %10.1f ns/op", name, params, getScore(), getError());
+		}
+	}
+}
@@ -0,0 +1,442 @@
+package benchmark;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import algorithm.BitBoard;
+import algorithm.Board;
+import algorithm.DirectionStatus;
+import algorithm.Evaluator;
+import algorithm.Expectimax;
+import algorithm.NextMove;
+import algorithm.SearchOptions;
+import algorithm.SearchResult;
+import algorithm.TranspositionTable;
+import systemModel.Direction;
+import systemModel.Game;
+import systemModel.GameUtil;
+import systemModel.RowMoveTable;
+
+/**
+ * Benchmarks the hot paths of the game and of the solver on a fixed corpus of self-play positions: the moves of {@link Board}, {@link BitBoard} and {@link Game}, with
+ * Move objects and with packed moves, the end of game check, the legal moves by moving and by mask, the collapse of a row by scanning and by table lookup, the
+ * heuristic, the fixed depth searches, the iterative deepening with and without statistics and the Monte Carlo rollouts and tree search by policy and number of
+ * threads. The results can be written as CSV or in the JSON layout of JMH, to track regressions between runs.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public class HotPathBenchmark
+{
+	/**
+	 * Command line usage
+	 */
+	private static final String	USAGE	= "Usage: HotPathBenchmark [--filter REGEX] [--format text|csv|json] [--output FILE] [--warmup N] [--iterations N] [--time MILLIS]"
+												+ " [--positions N] [--seed SEED] [--minimax-depths FROM-TO] [--expectimax-depths FROM-TO] [--rollouts N] [--mcts-iterations N]";
+
+	/**
+	 * Entry point.
+	 *
+	 * @param args
+	 *            flags, see {@link #USAGE}
+	 * @throws Exception
+	 *             failure of a benchmark
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		Harness harness = new Harness();
+		Pattern filter = Pattern.compile("");
+		String format = "text";
+		String output = null;
+		int positions = 16;
+		long seed = 2048;
+		int[] minimaxDepths = { 3, 8 };
+		int[] expectimaxDepths = { 3, 5 };
+		int rollouts = 20;
+		int mctsIterations = 100;
+		try
+		{
+			for (int k = 0; k < args.length; k += 2)
+			{
+				if (k + 1 >= args.length)
+					throw new IllegalArgumentException("Missing value of " + args[k]);
+				String value = args[k + 1];
+				switch (args[k])
+				{
+					case "--filter":
+						filter = Pattern.compile(value);
+						break;
+					case "--format":
+						if (!value.equals("text") && !value.equals("csv") && !value.equals("json"))
+							throw new IllegalArgumentException("Unknown format " + value);
+						format = value;
+						break;
+					case "--output":
+						output = value;
+						break;
+					case "--warmup":
+						harness.setWarmupIterations(Integer.parseInt(value));
+						break;
+					case "--iterations":
+						harness.setIterations(Integer.parseInt(value));
+						break;
+					case "--time":
+						harness.setIterationMillis(Long.parseLong(value));
+						break;
+					case "--positions":
+						positions = Integer.parseInt(value);
+						break;
+					case "--seed":
+						seed = Long.parseLong(value);
+						break;
+					case "--minimax-depths":
+						minimaxDepths = parseRange(value);
+						break;
+					case "--rollouts":
+						rollouts = Integer.parseInt(value);
+						break;
+					case "--mcts-iterations":
+						mctsIterations = Integer.parseInt(value);
+						break;
+					case "--expectimax-depths":
+						expectimaxDepths = parseRange(value);
+						break;
+					default:
+						throw new IllegalArgumentException("Unknown flag " + args[k]);
+				}
+			}
+		}
+		catch (IllegalArgumentException e)
+		{
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+		final List<long[]> corpus = SelfPlay.sample(SelfPlay.recordTrace(1, 2, new Random(seed)), positions);
+		System.err.println(corpus.size() + " positions, seed " + seed);
+		final Board[] boards = new Board[corpus.size()];
+		final int[][][] grids = new int[corpus.size()][][];
+		final int[][] rows = new int[corpus.size() * Board.BOARD_SIZE][];
+		for (int k = 0; k < corpus.size(); ++k)
+		{
+			boards[k] = new Board(corpus.get(k)[0], (int) corpus.get(k)[1]);
+			grids[k] = BitBoard.toArray(corpus.get(k)[0]);
+			for (int i = 0; i < Board.BOARD_SIZE; ++i)
+				rows[k * Board.BOARD_SIZE + i] = grids[k][i];
+		}
+		final int n = corpus.size();
+		for (final DirectionStatus direction : DirectionStatus.values())
+		{
+			run(harness, filter, "board.move." + direction.name(), "", new Harness.Operation()
+			{
+				@Override
+				public long run(int index) throws CloneNotSupportedException
+				{
+					return ((Board) boards[index % n].clone()).move(direction);
+				}
+			});
+		}
+		run(harness, filter, "board.clone", "", new Harness.Operation()
+		{
+			@Override
+			public long run(int index) throws CloneNotSupportedException
+			{
+				return ((Board) boards[index % n].clone()).getScore();
+			}
+		});
+		run(harness, filter, "board.isGameTerminated", "", new Harness.Operation()
+		{
+			@Override
+			public long run(int index) throws CloneNotSupportedException
+			{
+				return ((Board) boards[index % n].clone()).isGameTerminated() ? 1 : 0;
+			}
+		});
+		run(harness, filter, "board.legalMoves.clone", "", new Harness.Operation()
+		{
+			@Override
+			public long run(int index) throws CloneNotSupportedException
+			{
+				Board board = boards[index % n];
+				int[][] before = board.getBoardArray();
+				int mask = 0;
+				for (DirectionStatus direction : DirectionStatus.values())
+				{
+					Board copy = (Board) board.clone();
+					copy.move(direction);
+					if (!board.isEqual(before, copy.getBoardArray()))
+						mask |= 1 << direction.getCode();
+				}
+				return mask;
+			}
+		});
+		run(harness, filter, "board.legalMoveMask", "", new Harness.Operation()
+		{
+			@Override
+			public long run(int index)
+			{
+				return boards[index % n].legalMoveMask();
+			}
+		});
+		for (final DirectionStatus direction : DirectionStatus.values())
+		{
+			run(harness, filter, "bitboard.move." + direction.name(), "", new Harness.Operation()
+			{
+				@Override
+				public long run(int index)
+				{
+					return BitBoard.move(corpus.get(index % n)[0], direction);
+				}
+			});
+		}
+		run(harness, filter, "bitboard.isGameTerminated", "", new Harness.Operation()
+		{
+			@Override
+			public long run(int index)
+			{
+				long[] position = corpus.get(index % n);
+				return BitBoard.isGameTerminated(position[0], (int) position[1]) ? 1 : 0;
+			}
+		});
+		run(harness, filter, "bitboard.legalMoves.move", "", new Harness.Operation()
+		{
+			@Override
+			public long run(int index)
+			{
+				long board = corpus.get(index % n)[0];
+				int mask = 0;
+				for (DirectionStatus direction : DirectionStatus.values())
+					if (BitBoard.move(board, direction) != board)
+						mask |= 1 << direction.getCode();
+				return mask;
+			}
+		});
+		run(harness, filter, "bitboard.legalMoveMask", "", new Harness.Operation()
+		{
+			@Override
+			public long run(int index)
+			{
+				return BitBoard.legalMoveMask(corpus.get(index % n)[0]);
+			}
+		});
+		run(harness, filter, "gameUtil.collapseArray", "", new Harness.Operation()
+		{
+			@Override
+			public long run(int index)
+			{
+				return GameUtil.collapseArray(rows[index % rows.length].clone()).size();
+			}
+		});
+		final int[] rowMoves = new int[Board.BOARD_SIZE];
+		run(harness, filter, "rowMoveTable.collapseArray", "", new Harness.Operation()
+		{
+			@Override
+			public long run(int index)
+			{
+				return RowMoveTable.collapseArray(rows[index % rows.length].clone(), rowMoves, 0);
+			}
+		});
+		final Game game = new Game(Board.BOARD_SIZE, new Random(seed));
+		for (final Direction direction : Direction.values())
+		{
+			run(harness, filter, "game.collapse." + direction.name(), "", new Harness.Operation()
+			{
+				@Override
+				public long run(int index)
+				{
+					int[][] grid = grids[index % n];
+					int[][] copy = new int[grid.length][];
+					for (int i = 0; i < grid.length; ++i)
+						copy[i] = grid[i].clone();
+					game.setGrid(copy);
+					return game.collapse(direction).getMoves().size();
+				}
+			});
+		}
+		final int[] moves = new int[Board.BOARD_SIZE * Board.BOARD_SIZE];
+		for (final Direction direction : Direction.values())
+		{
+			run(harness, filter, "game.collapsePacked." + direction.name(), "", new Harness.Operation()
+			{
+				@Override
+				public long run(int index)
+				{
+					int[][] grid = grids[index % n];
+					int[][] copy = new int[grid.length][];
+					for (int i = 0; i < grid.length; ++i)
+						copy[i] = grid[i].clone();
+					game.setGrid(copy);
+					return game.collapse(direction, moves);
+				}
+			});
+		}
+		run(harness, filter, "evaluator.heuristicScore", "", new Harness.Operation()
+		{
+			@Override
+			public long run(int index)
+			{
+				long[] position = corpus.get(index % n);
+				return Evaluator.heuristicScore(position[0], (int) position[1]);
+			}
+		});
+		for (int depth = minimaxDepths[0]; depth <= minimaxDepths[1]; ++depth)
+		{
+			final int searchDepth = depth;
+			run(harness, filter, "search.minimax", "depth=" + depth + " positions=" + n, new Harness.Operation()
+			{
+				@Override
+				public long run(int index) throws CloneNotSupportedException
+				{
+					long directions = 0;
+					for (Board board : boards)
+						directions = 5 * directions + code(NextMove.findBestMove(board, searchDepth));
+					return directions;
+				}
+			});
+		}
+		for (int depth = expectimaxDepths[0]; depth <= expectimaxDepths[1]; ++depth)
+		{
+			final int searchDepth = depth;
+			run(harness, filter, "search.expectimax", "depth=" + depth + " positions=" + n, new Harness.Operation()
+			{
+				@Override
+				public long run(int index)
+				{
+					long directions = 0;
+					for (Board board : boards)
+						directions = 5 * directions + code(new Expectimax().search(board, searchDepth).getDirection());
+					return directions;
+				}
+			});
+		}
+		final TranspositionTable table = new TranspositionTable();
+		for (final NextMove.Engine engine : new NextMove.Engine[] { NextMove.Engine.MINIMAX, NextMove.Engine.EXPECTIMAX })
+		{
+			final int searchDepth = engine == NextMove.Engine.MINIMAX ? minimaxDepths[1] : expectimaxDepths[1];
+			for (final boolean statistics : new boolean[] { false, true })
+			{
+				run(harness, filter, "search.deepening", "engine=" + engine + " depth=" + searchDepth + " statistics=" + statistics + " positions=" + n, new Harness.Operation()
+				{
+					@Override
+					public long run(int index) throws CloneNotSupportedException
+					{
+						SearchOptions options = new SearchOptions(engine, searchDepth);
+						options.setCollectStatistics(statistics);
+						options.setTranspositionTable(table);
+						table.clear();
+						long directions = 0;
+						for (Board board : boards)
+							directions = 5 * directions + code(NextMove.search(board, options).getDirection());
+						return directions;
+					}
+				});
+			}
+		}
+		int processors = Runtime.getRuntime().availableProcessors();
+		for (final NextMove.Engine engine : new NextMove.Engine[] { NextMove.Engine.MONTE_CARLO, NextMove.Engine.MCTS })
+			for (final NextMove.RolloutPolicy policy : NextMove.RolloutPolicy.values())
+				for (final int threads : processors > 1 ? new int[] { 1, processors } : new int[] { 1 })
+				{
+					final SearchOptions options = new SearchOptions(engine, 1);
+					options.setRollouts(rollouts);
+					options.setIterations(mctsIterations);
+					options.setRolloutPolicy(policy);
+					options.setRolloutThreads(threads);
+					final long[] played = new long[2];
+					String name = engine == NextMove.Engine.MCTS ? "search.mcts" : "search.montecarlo";
+					String size = engine == NextMove.Engine.MCTS ? "iterations=" + mctsIterations : "rollouts=" + rollouts;
+					run(harness, filter, name, "policy=" + policy + " " + size + " threads=" + threads + " positions=" + n, new Harness.Operation()
+					{
+						@Override
+						public long run(int index) throws CloneNotSupportedException
+						{
+							long directions = 0;
+							for (Board board : boards)
+							{
+								SearchResult result = NextMove.search(board, options);
+								played[0] += result.getRollouts();
+								played[1] += result.getElapsedNanos();
+								directions = 5 * directions + code(result.getDirection());
+							}
+							return directions;
+						}
+					});
+					if (played[1] > 0)
+						System.err.println(String.format("  %.0f rollouts/s", played[0] * 1e9 / played[1]));
+				}
+		PrintStream out = System.out;
+		if (output != null)
+		{
+			try
+			{
+				out = new PrintStream(output);
+			}
+			catch (FileNotFoundException e)
+			{
+				System.err.println("Cannot write " + output + ": " + e.getMessage());
+				System.exit(1);
+			}
+		}
+		if (format.equals("csv"))
+			harness.printCsv(out);
+		else if (format.equals("json"))
+			harness.printJson(out);
+		else
+			for (Harness.Result result : harness.getResults())
+				out.println(result);
+		if (out != System.out)
+			out.close();
+		System.err.println("sink " + harness.getSink());
+	}
+
+	/**
+	 * Runs a benchmark if its name matches the filter, and prints its result on the error stream as it completes.
+	 *
+	 * @param harness
+	 *            harness
+	 * @param filter
+	 *            filter of the names
+	 * @param name
+	 *            name of the benchmark
+	 * @param params
+	 *            parameters
+	 * @param operation
+	 *            operation
+	 * @throws Exception
+	 *             failure of the operation
+	 */
+	private static void run(Harness harness, Pattern filter, String name, String params, Harness.Operation operation) throws Exception
+	{
+		if (!filter.matcher(name).find())
+			return;
+		System.err.println(harness.measure(name, params, operation));
+	}
+
+	/**
+	 * Numbers a direction chosen by a search.
+	 *
+	 * @param direction
+	 *            direction, null when no move is left
+	 * @return number from 0 to 4
+	 */
+	private static int code(DirectionStatus direction)
+	{
+		return direction == null ? 4 : direction.ordinal();
+	}
+
+	/**
+	 * Parses a range of depths.
+	 *
+	 * @param range
+	 *            range as FROM-TO, or a single depth
+	 * @return first and last depth
+	 */
+	private static int[] parseRange(String range)
+	{
+		int dash = range.indexOf('-');
+		if (dash < 0)
+			return new int[] { Integer.parseInt(range), Integer.parseInt(range) };
+		return new int[] { Integer.parseInt(range.substring(0, dash)), Integer.parseInt(range.substring(dash + 1)) };
+	}
+}
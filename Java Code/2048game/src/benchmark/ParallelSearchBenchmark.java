@@ -0,0 +1,104 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import algorithm.Board;
+import algorithm.DirectionStatus;
+import algorithm.NextMove;
+import algorithm.SearchOptions;
+import algorithm.SearchResult;
+import algorithm.TranspositionTable;
+
+/**
+ * Measures the speedup of the parallel search against the number of threads, splitting the root only, the root and the first computer layer, and every computer node
+ * down to a split depth,, on positions recorded from self-play games. Every configuration searches the
+ * same positions to the same depth with a fresh transposition table.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public class ParallelSearchBenchmark
+{
+	/**
+	 * Entry point.
+	 *
+	 * @param args
+	 *            engine (MINIMAX or EXPECTIMAX), search depth, number of positions, seed, largest number of threads and split depth of the computer nodes, all optional
+	 * @throws CloneNotSupportedException
+	 *             clone not supported
+	 */
+	public static void main(String[] args) throws CloneNotSupportedException
+	{
+		NextMove.Engine engine = args.length > 0 ? NextMove.Engine.valueOf(args[0]) : NextMove.Engine.EXPECTIMAX;
+		int depth = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int positions = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : 2048;
+		int maxThreads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+		int chanceSplitDepth = args.length > 5 ? Integer.parseInt(args[5]) : Math.max(depth - 3, 1);
+		List<long[]> corpus = SelfPlay.sample(SelfPlay.recordTrace(1, 2, new Random(seed)), positions);
+		System.out.println(engine + " depth " + depth + " on " + corpus.size() + " positions, " + Runtime.getRuntime().availableProcessors() + " processors");
+		run(corpus, engine, depth, 0, false, 0);
+		String[] labels = { "root", "root+chance", "chance>=" + chanceSplitDepth };
+		for (int mode = 0; mode < labels.length; ++mode)
+		{
+			List<DirectionStatus> reference = null;
+			double referenceSeconds = 0;
+			for (int threads = 1; threads <= maxThreads; threads *= 2)
+			{
+				long start = System.nanoTime();
+				List<DirectionStatus> directions = run(corpus, engine, depth, threads, mode == 1, mode == 2 ? chanceSplitDepth : 0);
+				double seconds = (System.nanoTime() - start) / 1e9;
+				if (reference == null)
+				{
+					reference = directions;
+					referenceSeconds = seconds;
+				}
+				int same = 0;
+				for (int k = 0; k < directions.size(); ++k)
+					if (directions.get(k) == reference.get(k))
+						++same;
+				System.out.println(String.format("%-16s %2d threads: %7.2f s, speedup %5.2f, %d/%d moves as with 1 thread", labels[mode], threads,
+						seconds, referenceSeconds / seconds, same, directions.size()));
+			}
+		}
+	}
+
+	/**
+	 * Searches every position of the corpus.
+	 *
+	 * @param corpus
+	 *            positions
+	 * @param engine
+	 *            search engine
+	 * @param depth
+	 *            search depth
+	 * @param threads
+	 *            number of threads, 0 for the sequential search
+	 * @param splitChanceLayer
+	 *            whether the first computer layer is split into tasks
+	 * @param chanceSplitDepth
+	 *            smallest remaining depth of a split computer node, 0 for none
+	 * @return chosen directions
+	 * @throws CloneNotSupportedException
+	 *             clone not supported
+	 */
+	private static List<DirectionStatus> run(List<long[]> corpus, NextMove.Engine engine, int depth, int threads, boolean splitChanceLayer, int chanceSplitDepth) throws CloneNotSupportedException
+	{
+		ForkJoinPool pool = threads > 0 ? new ForkJoinPool(threads) : null;
+		SearchOptions options = new SearchOptions(engine, depth);
+		options.setPool(pool);
+		options.setSplitChanceLayer(splitChanceLayer);
+		options.setChanceSplitDepth(chanceSplitDepth);
+		options.setTranspositionTable(new TranspositionTable());
+		List<DirectionStatus> directions = new ArrayList<>();
+		for (long[] position : corpus)
+		{
+			SearchResult result = NextMove.search(new Board(position[0], (int) position[1]), options);
+			directions.add(result.getDirection());
+		}
+		if (pool != null)
+			pool.shutdown();
+		return directions;
+	}
+}
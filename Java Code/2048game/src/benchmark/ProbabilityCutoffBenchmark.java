@@ -0,0 +1,120 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import algorithm.ActionStatus;
+import algorithm.Board;
+import algorithm.DirectionStatus;
+import algorithm.NextMove;
+import algorithm.SearchOptions;
+import algorithm.SearchResult;
+import algorithm.SplittableSpawnSource;
+import algorithm.TranspositionTable;
+
+/**
+ * Measures what the probability cutoff of the expectimax engine saves and what it costs, at several cutoffs. Every cutoff first searches the same positions, recorded
+ * from self-play games, to the same depth, counting the nodes and the moves that differ from the search without cutoff; then it plays the same games, seeded alike,
+ * counting the wins.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public class ProbabilityCutoffBenchmark
+{
+	/**
+	 * Cutoffs measured, the first one without cutoff as the reference
+	 */
+	private static final double[]	CUTOFFS	= { 0, 1e-5, 1e-4, 1e-3, 3e-3, 1e-2 };
+
+	/**
+	 * Entry point.
+	 *
+	 * @param args
+	 *            search depth, number of positions, number of games and seed, all optional
+	 * @throws CloneNotSupportedException
+	 *             clone not supported
+	 */
+	public static void main(String[] args) throws CloneNotSupportedException
+	{
+		int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+		int positions = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+		int games = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : 2048;
+		List<long[]> corpus = SelfPlay.sample(SelfPlay.recordTrace(1, 2, new Random(seed)), positions);
+		System.out.println("EXPECTIMAX depth " + depth + " on " + corpus.size() + " positions and " + games + " games (seed " + seed + ")");
+		System.out.println(String.format("%8s %14s %8s %10s %10s %6s %12s %10s", "cutoff", "nodes", "saved", "ms/search", "same move", "wins", "mean score", "s/game"));
+		// one pass to warm up, so that the first cutoff is not timed on interpreted code
+		SearchOptions warmup = new SearchOptions(NextMove.Engine.EXPECTIMAX, depth);
+		warmup.setTranspositionTable(new TranspositionTable());
+		for (long[] position : corpus)
+			NextMove.search(new Board(position[0], (int) position[1]), warmup);
+		long referenceNodes = 0;
+		List<DirectionStatus> reference = null;
+		for (double cutoff : CUTOFFS)
+		{
+			SearchOptions options = new SearchOptions(NextMove.Engine.EXPECTIMAX, depth);
+			options.setProbabilityCutoff(cutoff);
+			options.setTranspositionTable(new TranspositionTable());
+			long nodes = 0;
+			long start = System.nanoTime();
+			List<DirectionStatus> directions = new ArrayList<>();
+			for (long[] position : corpus)
+			{
+				SearchResult result = NextMove.search(new Board(position[0], (int) position[1]), options);
+				nodes += result.getNodes();
+				directions.add(result.getDirection());
+			}
+			double searchMillis = (System.nanoTime() - start) / 1e6 / Math.max(corpus.size(), 1);
+			if (reference == null)
+			{
+				reference = directions;
+				referenceNodes = nodes;
+			}
+			int same = 0;
+			for (int k = 0; k < directions.size(); ++k)
+				if (directions.get(k) == reference.get(k))
+					++same;
+			int wins = 0;
+			long scores = 0;
+			start = System.nanoTime();
+			SplittableSpawnSource master = new SplittableSpawnSource(seed);
+			for (int k = 0; k < games; ++k)
+			{
+				options.getTranspositionTable().clear();
+				Board theGame = new Board(master.split());
+				if (play(theGame, options))
+					++wins;
+				scores += theGame.getScore();
+			}
+			double gameSeconds = (System.nanoTime() - start) / 1e9 / Math.max(games, 1);
+			System.out.println(String.format("%8.0e %14d %7.1f%% %10.3f %4d/%-5d %3d/%-2d %12.0f %10.2f", cutoff, nodes, 100.0 * (referenceNodes - nodes) / referenceNodes,
+					searchMillis, same, directions.size(), wins, games, (double) scores / Math.max(games, 1), gameSeconds));
+		}
+	}
+
+	/**
+	 * Plays one game to its end.
+	 *
+	 * @param theGame
+	 *            new game
+	 * @param options
+	 *            search options
+	 * @return whether the game is won
+	 * @throws CloneNotSupportedException
+	 *             clone not supported
+	 */
+	private static boolean play(Board theGame, SearchOptions options) throws CloneNotSupportedException
+	{
+		ActionStatus result = ActionStatus.CONTINUE;
+		while (result == ActionStatus.CONTINUE || result == ActionStatus.INVALID_MOVE)
+		{
+			if (theGame.legalMoveMask() == 0)
+				break;
+			SearchResult hint = NextMove.search(theGame, options);
+			if (hint.getDirection() == null)
+				break;
+			result = theGame.action(hint.getDirection());
+		}
+		return result == ActionStatus.WIN;
+	}
+}
@@ -0,0 +1,65 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import algorithm.BitBoard;
+import algorithm.Expectimax;
+import algorithm.SearchResult;
+
+/**
+ * Records the positions of self-play games, to be used as the corpus of the benchmarks.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+class SelfPlay
+{
+	/**
+	 * Plays games with the expectimax engine and records every position on which a move was decided.
+	 *
+	 * @param games
+	 *            number of games
+	 * @param depth
+	 *            search depth
+	 * @param random
+	 *            random generator of the new tiles
+	 * @return positions, each one a packed board and a score
+	 */
+	static List<long[]> recordTrace(int games, int depth, Random random)
+	{
+		List<long[]> trace = new ArrayList<>();
+		for (int i = 0; i < games; ++i)
+		{
+			long board = BitBoard.addRandomTile(BitBoard.addRandomTile(BitBoard.EMPTY_BOARD, random), random);
+			int score = 0;
+			while (!BitBoard.isGameTerminated(board, score))
+			{
+				trace.add(new long[] { board, score });
+				SearchResult result = new Expectimax().search(board, score, depth);
+				if (result.getDirection() == null)
+					break;
+				score += BitBoard.moveScore(board, result.getDirection());
+				board = BitBoard.addRandomTile(BitBoard.move(board, result.getDirection()), random);
+			}
+		}
+		return trace;
+	}
+
+	/**
+	 * Picks evenly spaced positions of a trace.
+	 *
+	 * @param trace
+	 *            positions
+	 * @param count
+	 *            number of positions to pick
+	 * @return picked positions
+	 */
+	static List<long[]> sample(List<long[]> trace, int count)
+	{
+		List<long[]> sample = new ArrayList<>();
+		int step = Math.max(trace.size() / Math.max(count, 1), 1);
+		for (int k = 0; k < trace.size() && sample.size() < count; k += step)
+			sample.add(trace.get(k));
+		return sample;
+	}
+}
@@ -0,0 +1,84 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import algorithm.Board;
+import algorithm.DirectionStatus;
+import algorithm.NextMove;
+import algorithm.NextMove.ChancePruning;
+import algorithm.SearchOptions;
+import algorithm.SearchResult;
+import algorithm.SearchStatistics;
+import algorithm.TranspositionTable;
+
+/**
+ * Measures what the Star1 pruning of the computer nodes saves against the expectimax search without pruning. Every pruning searches the same positions, recorded
+ * from self-play games, to the same depth with a new transposition table, counting the nodes, the computer nodes cut by alpha and by beta, and the moves that differ from
+ * the search without pruning.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public class StarPruningBenchmark
+{
+	/**
+	 * Entry point.
+	 *
+	 * @param args
+	 *            search depth, number of positions and seed, all optional
+	 * @throws CloneNotSupportedException
+	 *             clone not supported
+	 */
+	public static void main(String[] args) throws CloneNotSupportedException
+	{
+		int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+		int positions = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 2048;
+		List<long[]> corpus = SelfPlay.sample(SelfPlay.recordTrace(1, 2, new Random(seed)), positions);
+		System.out.println("EXPECTIMAX depth " + depth + " on " + corpus.size() + " positions (seed " + seed + ")");
+		System.out.println(String.format("%8s %14s %8s %10s %12s %12s %9s %10s", "pruning", "nodes", "saved", "ms/search", "alpha cuts", "beta cuts", "cut rate",
+				"same move"));
+		// one pass to warm up, so that the first pruning is not timed on interpreted code
+		SearchOptions warmup = new SearchOptions(NextMove.Engine.EXPECTIMAX, depth);
+		warmup.setTranspositionTable(new TranspositionTable());
+		for (long[] position : corpus)
+			NextMove.search(new Board(position[0], (int) position[1]), warmup);
+		long referenceNodes = 0;
+		List<DirectionStatus> reference = null;
+		for (ChancePruning pruning : ChancePruning.values())
+		{
+			SearchOptions options = new SearchOptions(NextMove.Engine.EXPECTIMAX, depth);
+			options.setChancePruning(pruning);
+			options.setTranspositionTable(new TranspositionTable());
+			options.setCollectStatistics(true);
+			SearchStatistics statistics = new SearchStatistics();
+			long nodes = 0;
+			long start = System.nanoTime();
+			List<DirectionStatus> directions = new ArrayList<>();
+			for (long[] position : corpus)
+			{
+				SearchResult result = NextMove.search(new Board(position[0], (int) position[1]), options);
+				nodes += result.getNodes();
+				statistics.merge(result.getStatistics());
+				directions.add(result.getDirection());
+			}
+			double searchMillis = (System.nanoTime() - start) / 1e6 / Math.max(corpus.size(), 1);
+			if (reference == null)
+			{
+				reference = directions;
+				referenceNodes = nodes;
+			}
+			int same = 0;
+			for (int k = 0; k < directions.size(); ++k)
+				if (directions.get(k) == reference.get(k))
+					++same;
+			// the computer nodes are the odd plies, the root being a user node
+			long chanceNodes = 0;
+			for (int ply = 1; ply <= depth; ply += 2)
+				chanceNodes += statistics.getNodesAtPly(ply);
+			long cuts = statistics.getAlphaCutoffs() + statistics.getChanceBetaCutoffs();
+			System.out.println(String.format("%8s %14d %7.1f%% %10.3f %12d %12d %8.2f%% %4d/%-5d", pruning, nodes, 100.0 * (referenceNodes - nodes) / referenceNodes,
+					searchMillis, statistics.getAlphaCutoffs(), statistics.getChanceBetaCutoffs(), 100.0 * cuts / Math.max(chanceNodes, 1), same, directions.size()));
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package benchmark;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import algorithm.Evaluator;
+import algorithm.Expectimax;
+import algorithm.Symmetry;
+import algorithm.TranspositionTable;
+
+/**
+ * Measures what the {@link Symmetry} of the board could save a cache and why the transposition table does not use it. A few self-play games are recorded first; the
+ * recorded positions are counted raw and up to symmetry, the positions whose heuristic score differs from that of their canonical representative are counted, and every
+ * position is searched again with one transposition table keyed by the raw board. A table keyed by the canonical board would return the value of another board for
+ * every position of the second count.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public class SymmetryBenchmark
+{
+	/**
+	 * Entry point.
+	 *
+	 * @param args
+	 *            number of games, depth of the self-play search, depth of the measured search and seed, all optional
+	 */
+	public static void main(String[] args)
+	{
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+		int traceDepth = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+		int searchDepth = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : 2048;
+		List<long[]> trace = SelfPlay.recordTrace(games, traceDepth, new Random(seed));
+		Set<Long> rawPositions = new HashSet<>();
+		Set<Long> canonicalPositions = new HashSet<>();
+		int asymmetric = 0;
+		for (long[] position : trace)
+		{
+			rawPositions.add(position[0]);
+			long canonical = Symmetry.canonicalize(position[0]);
+			canonicalPositions.add(canonical);
+			if (Evaluator.heuristicScore(position[0], (int) position[1]) != Evaluator.heuristicScore(canonical, (int) position[1]))
+				++asymmetric;
+		}
+		System.out.println(trace.size() + " positions recorded in " + games + " games, " + rawPositions.size() + " distinct, " + canonicalPositions.size() + " distinct up to symmetry.");
+		System.out.println(asymmetric + " positions scored differently from their canonical representative.");
+		replay(trace, searchDepth);
+	}
+
+	/**
+	 * Searches every position of a trace with one shared transposition table and prints the hit rate.
+	 *
+	 * @param trace
+	 *            positions
+	 * @param depth
+	 *            search depth
+	 */
+	private static void replay(List<long[]> trace, int depth)
+	{
+		TranspositionTable table = new TranspositionTable();
+		long probes = 0;
+		long hits = 0;
+		long nodes = 0;
+		long start = System.nanoTime();
+		for (long[] position : trace)
+		{
+			Expectimax expectimax = new Expectimax(table);
+			expectimax.search(position[0], (int) position[1], depth);
+			probes += expectimax.getTableProbes();
+			hits += expectimax.getTableHits();
+			nodes += expectimax.getNodes();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.println(String.format("raw keys, depth %d: %d probes, %d hits, hit rate %.2f%%, %d nodes, %.2f s", depth, probes, hits,
+				100.0 * hits / Math.max(probes, 1), nodes, seconds));
+	}
+}
@@ -15,6 +15,31 @@ public class Game
 	private int[][]		grid;
 	private int			score;
 
+	/**
+	 * Row or column being collapsed by {@link #collapse(Direction, int[])}, reused by every move.
+	 */
+	private final int[]	row;
+
+	/**
+	 * Packed moves of {@link #collapse(Direction)}, reused by every move.
+	 */
+	private final int[]	moveBuffer;
+
+	/**
+	 * Row of the tile placed by the last {@link #collapse(Direction, int[])}, -1 if none.
+	 */
+	private int			newTileRow	= -1;
+
+	/**
+	 * Column of the tile placed by the last {@link #collapse(Direction, int[])}, -1 if none.
+	 */
+	private int			newTileCol	= -1;
+
+	/**
+	 * Value of the tile placed by the last {@link #collapse(Direction, int[])}, 0 if none.
+	 */
+	private int			newTileValue;
+
 	/**
 	 * Constructs a game with a grid of the given size, using a default random number generator.
 	 * 
@@ -38,6 +63,8 @@ public class Game
 	{
 		size = givenSize;
 		grid = new int[size][size];
+		row = new int[size];
+		moveBuffer = new int[size * size];
 		rand = givenRandom;
 		TilePosition t = generate();
 		grid[t.getRow()][t.getCol()] = t.getValue();
@@ -104,9 +131,24 @@ public class Game
 	 * @return array containing the row or column
 	 */
 	public int[] copyRowOrColumn(int rowOrColumn, Direction dir)
+	{
+		return copyRowOrColumn(rowOrColumn, dir, new int[grid.length]);
+	}
+
+	/**
+	 * Copy a row or column from the grid into the given one-dimensional array.
+	 * 
+	 * @param rowOrColumn
+	 *            index of the row or column
+	 * @param dir
+	 *            direction from which to begin copying
+	 * @param array
+	 *            array to copy into, of the size of the grid
+	 * @return the given array
+	 */
+	private int[] copyRowOrColumn(int rowOrColumn, Direction dir, int[] array)
 	{
 		int size = grid.length;
-		int[] array = new int[size];
 		for (int i = 0; i < size; i += 1)
 		{
 			switch (dir)
@@ -169,6 +211,26 @@ public class Game
 	 * @return Result object containing moves and new tile position
 	 */
 	public Result collapse(Direction dir)
+	{
+		if (size > PackedMove.MAX_SIZE)
+			return collapseWithMoves(dir);
+		Result result = new Result();
+		int count = collapse(dir, moveBuffer);
+		for (int k = 0; k < count; ++k)
+			result.addMove(PackedMove.toMove(moveBuffer[k]));
+		if (newTileRow >= 0)
+			result.setNewTile(new TilePosition(newTileRow, newTileCol, newTileValue));
+		return result;
+	}
+
+	/**
+	 * Plays one step of the game by collapsing every row or column with {@link GameUtil#collapseArray(int[])}, for grids too large for packed moves.
+	 * 
+	 * @param dir
+	 *            direction in which to collapse the grid
+	 * @return Result object containing moves and new tile position
+	 */
+	private Result collapseWithMoves(Direction dir)
 	{
 		Result result = new Result();
 		TilePosition newTile = null;
@@ -194,27 +256,137 @@ public class Game
 		return result;
 	}
 
+	/**
+	 * Plays one step of the game by collapsing the grid in the given direction, as {@link #collapse(Direction)} does, but writes the moves into the given buffer as packed
+	 * moves instead of returning a Result, so that no objects are created. The new tile, if any, is then given by {@link #getNewTileRow()}, {@link #getNewTileCol()} and
+	 * {@link #getNewTileValue()}. Rows and columns of four tiles are collapsed with one lookup in the {@link RowMoveTable}.
+	 * 
+	 * @param dir
+	 *            direction in which to collapse the grid
+	 * @param moves
+	 *            buffer of packed moves, with room for at least size * size moves
+	 * @return number of moves written, 0 if the grid cannot collapse in that direction
+	 * @see PackedMove
+	 */
+	public int collapse(Direction dir, int[] moves)
+	{
+		if (size > PackedMove.MAX_SIZE)
+			throw new IllegalStateException("Grid too large for packed moves: " + size);
+		if (moves.length < size * size)
+			throw new IllegalArgumentException("Move buffer too small: " + moves.length + " < " + size * size);
+		int count = 0;
+		for (int i = 0; i < size; i += 1)
+		{
+			int first = count;
+			count = RowMoveTable.collapseArray(copyRowOrColumn(i, dir, row), moves, count);
+			if (count == first)
+				continue;
+			updateRowOrColumn(row, i, dir);
+			for (int k = first; k < count; ++k)
+			{
+				if (PackedMove.isMerged(moves[k]))
+					score += PackedMove.getValue(moves[k]) * 2;
+				moves[k] = PackedMove.setDirection(moves[k], i, dir);
+			}
+		}
+		newTileRow = -1;
+		newTileCol = -1;
+		newTileValue = 0;
+		if (count > 0)
+		{
+			newTileValue = generateValue();
+			int cell = generateCell();
+			if (cell >= 0)
+			{
+				newTileRow = cell / size;
+				newTileCol = cell % size;
+				grid[newTileRow][newTileCol] = newTileValue;
+			}
+			else
+				newTileValue = 0;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the row of the tile placed by the last {@link #collapse(Direction, int[])}.
+	 * 
+	 * @return row of the new tile, -1 if none was placed
+	 */
+	public int getNewTileRow()
+	{
+		return newTileRow;
+	}
+
+	/**
+	 * Returns the column of the tile placed by the last {@link #collapse(Direction, int[])}.
+	 * 
+	 * @return column of the new tile, -1 if none was placed
+	 */
+	public int getNewTileCol()
+	{
+		return newTileCol;
+	}
+
+	/**
+	 * Returns the value of the tile placed by the last {@link #collapse(Direction, int[])}.
+	 * 
+	 * @return value of the new tile, 0 if none was placed
+	 */
+	public int getNewTileValue()
+	{
+		return newTileValue;
+	}
+
 	/**
 	 * Use this game's instance of Random to generate a new tile.
 	 * 
 	 * @return a new TilePosition containing the row, column, and value of the selected new tile, or null if the grid has no empty cells
 	 */
 	public TilePosition generate()
+	{
+		int value = generateValue();
+		int cell = generateCell();
+		if (cell < 0)
+			return null;
+		return new TilePosition(cell / grid[0].length, cell % grid[0].length, value);
+	}
+
+	/**
+	 * Use this game's instance of Random to choose the value of a new tile, 2 nine times out of ten and 4 otherwise.
+	 * 
+	 * @return value of the new tile
+	 */
+	private int generateValue()
 	{
 		int chance = rand.nextInt(100);
-		int value;
 		if (chance >= 0 && chance < 90)
-			value = 2;
+			return 2;
 		else
-			value = 4;
-		ArrayList<TilePosition> positions = new ArrayList<>();
+			return 4;
+	}
+
+	/**
+	 * Use this game's instance of Random to choose an empty cell for a new tile, every empty cell being equally likely. The cells are counted first and the chosen one
+	 * found by a second scan, so that no list of positions is built.
+	 * 
+	 * @return index of the cell, row * columns + column, or -1 if the grid has no empty cells
+	 */
+	private int generateCell()
+	{
+		int empty = 0;
 		for (int row = 0; row < grid.length; row += 1)
 			for (int col = 0; col < grid[0].length; col += 1)
 				if (grid[row][col] == 0)
-					positions.add(new TilePosition(row, col, value));
-		if (positions.size() == 0)
-			return null;
-		return positions.get(rand.nextInt(positions.size()));
+					empty += 1;
+		if (empty == 0)
+			return -1;
+		int chosen = rand.nextInt(empty);
+		for (int row = 0; row < grid.length; row += 1)
+			for (int col = 0; col < grid[0].length; col += 1)
+				if (grid[row][col] == 0 && chosen-- == 0)
+					return row * grid[0].length + col;
+		return -1;
 	}
 
 	/**
@@ -104,4 +104,55 @@ public class GameUtil
 		}
 		return moves;
 	}
+
+	/**
+	 * Collapses the array to the left as {@link #collapseArray(int[])} does, but writes the moves performed as packed moves, without row or direction, into the given
+	 * buffer instead of creating Move objects.
+	 * 
+	 * @param arr
+	 *            array to be collapsed
+	 * @param moves
+	 *            buffer of packed moves, with room for at least <code>arr.length</code> more moves
+	 * @param count
+	 *            number of moves already in the buffer
+	 * @return number of moves in the buffer after the collapse
+	 * @see PackedMove
+	 */
+	public static int collapseArray(int[] arr, int[] moves, int count)
+	{
+		for (int i = 0; i < arr.length; i++)
+		{
+			int nextCell = findNextNonemptyCell(arr, i + 1);
+			if (nextCell == -1)
+				break;
+			int value = arr[nextCell];
+			if (arr[i] != 0)
+			{
+				if (value == arr[i])
+				{
+					moves[count++] = PackedMove.encode(nextCell, i, i, value);
+					arr[nextCell] = 0;
+					arr[i] = value * 2;
+				}
+			}
+			else
+			{
+				int nextNextCell = findNextNonemptyCell(arr, nextCell + 1);
+				if (nextNextCell != -1 && value == arr[nextNextCell])
+				{
+					moves[count++] = PackedMove.encode(nextCell, nextNextCell, i, value);
+					arr[nextCell] = 0;
+					arr[nextNextCell] = 0;
+					arr[i] = value * 2;
+				}
+				else
+				{
+					moves[count++] = PackedMove.encode(nextCell, PackedMove.NONE, i, value);
+					arr[nextCell] = 0;
+					arr[i] = value;
+				}
+			}
+		}
+		return count;
+	}
 }
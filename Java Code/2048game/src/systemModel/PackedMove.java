@@ -0,0 +1,205 @@
+package systemModel;
+
+/**
+ * Encoding of a {@link Move} in a single int, written by {@link Game#collapse(Direction, int[])} so that a move creates no objects. The fields are, from the lowest
+ * bits: the old index of the first tile, the old index of the second tile or {@link #NONE} if the tiles do not merge, the new index, the exponent of the value, the
+ * row or column and the direction, 6 bits each but 5 for the exponent and 2 for the direction.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public class PackedMove
+{
+	/**
+	 * Index of the second tile of a move without merge.
+	 */
+	public static final int				NONE				= 0x3F;
+
+	/**
+	 * Largest grid size whose indices fit in a packed move.
+	 */
+	public static final int				MAX_SIZE			= NONE;
+
+	/**
+	 * Mask of an index field.
+	 */
+	private static final int			INDEX_MASK			= 0x3F;
+
+	/**
+	 * Shift of the old index of the second tile.
+	 */
+	private static final int			OLD_INDEX2_SHIFT	= 6;
+
+	/**
+	 * Shift of the new index.
+	 */
+	private static final int			NEW_INDEX_SHIFT		= 12;
+
+	/**
+	 * Shift of the exponent of the value.
+	 */
+	private static final int			EXPONENT_SHIFT		= 18;
+
+	/**
+	 * Shift of the row or column.
+	 */
+	private static final int			ROW_SHIFT			= 23;
+
+	/**
+	 * Shift of the direction.
+	 */
+	private static final int			DIRECTION_SHIFT		= 29;
+
+	/**
+	 * Directions by ordinal, to decode without copying the values.
+	 */
+	private static final Direction[]	DIRECTIONS			= Direction.values();
+
+	/**
+	 * Encodes a move within a row, with neither row nor direction.
+	 *
+	 * @param oldIndex
+	 *            old index of the first tile
+	 * @param oldIndex2
+	 *            old index of the second tile, or {@link #NONE} if the tiles do not merge
+	 * @param newIndex
+	 *            new index of the tile or tiles
+	 * @param value
+	 *            current value of the tile or tiles, a power of two
+	 * @return packed move
+	 */
+	public static int encode(int oldIndex, int oldIndex2, int newIndex, int value)
+	{
+		return oldIndex | oldIndex2 << OLD_INDEX2_SHIFT | newIndex << NEW_INDEX_SHIFT | Integer.numberOfTrailingZeros(value) << EXPONENT_SHIFT;
+	}
+
+	/**
+	 * Sets the row or column and the direction of a move, as {@link Move#setDirection(int, Direction)} does.
+	 *
+	 * @param move
+	 *            packed move within a row
+	 * @param rowOrColumn
+	 *            row or column index
+	 * @param dir
+	 *            direction of the collapse
+	 * @return packed move in the grid
+	 */
+	public static int setDirection(int move, int rowOrColumn, Direction dir)
+	{
+		return move & ((1 << ROW_SHIFT) - 1) | rowOrColumn << ROW_SHIFT | dir.ordinal() << DIRECTION_SHIFT;
+	}
+
+	/**
+	 * Returns the old index of the first (or only) tile.
+	 *
+	 * @param move
+	 *            packed move
+	 * @return index of first tile
+	 */
+	public static int getOldIndex(int move)
+	{
+		return move & INDEX_MASK;
+	}
+
+	/**
+	 * Returns the old index of the second tile, in case of a merge.
+	 *
+	 * @param move
+	 *            packed move
+	 * @return index of second tile, or -1 if this is not a merge
+	 */
+	public static int getOldIndex2(int move)
+	{
+		int index = move >>> OLD_INDEX2_SHIFT & INDEX_MASK;
+		return index == NONE ? -1 : index;
+	}
+
+	/**
+	 * Returns the new index of the tile or tiles.
+	 *
+	 * @param move
+	 *            packed move
+	 * @return new index
+	 */
+	public static int getNewIndex(int move)
+	{
+		return move >>> NEW_INDEX_SHIFT & INDEX_MASK;
+	}
+
+	/**
+	 * Determines whether this is a merge move.
+	 *
+	 * @param move
+	 *            packed move
+	 * @return true if this is a merge move, false otherwise
+	 */
+	public static boolean isMerged(int move)
+	{
+		return (move >>> OLD_INDEX2_SHIFT & INDEX_MASK) != NONE;
+	}
+
+	/**
+	 * Returns the exponent of the current value of the tile or tiles.
+	 *
+	 * @param move
+	 *            packed move
+	 * @return exponent of the value
+	 */
+	public static int getExponent(int move)
+	{
+		return move >>> EXPONENT_SHIFT & 0x1F;
+	}
+
+	/**
+	 * Returns the current (old) value of the tile or tiles.
+	 *
+	 * @param move
+	 *            packed move
+	 * @return value of the tiles
+	 */
+	public static int getValue(int move)
+	{
+		return 1 << getExponent(move);
+	}
+
+	/**
+	 * Returns the row or column of the move in the grid.
+	 *
+	 * @param move
+	 *            packed move
+	 * @return row or column index
+	 */
+	public static int getRowOrColumn(int move)
+	{
+		return move >>> ROW_SHIFT & INDEX_MASK;
+	}
+
+	/**
+	 * Returns the direction of the move in the grid.
+	 *
+	 * @param move
+	 *            packed move
+	 * @return direction
+	 */
+	public static Direction getDirection(int move)
+	{
+		return DIRECTIONS[move >>> DIRECTION_SHIFT & 0x3];
+	}
+
+	/**
+	 * Decodes a move in the grid into a Move object.
+	 *
+	 * @param move
+	 *            packed move
+	 * @return Move object equal to the one {@link Game#collapse(Direction)} returns
+	 */
+	public static Move toMove(int move)
+	{
+		Move m;
+		if (isMerged(move))
+			m = new Move(getOldIndex(move), getOldIndex2(move), getNewIndex(move), getValue(move));
+		else
+			m = new Move(getOldIndex(move), getNewIndex(move), getValue(move));
+		m.setDirection(getRowOrColumn(move), getDirection(move));
+		return m;
+	}
+}
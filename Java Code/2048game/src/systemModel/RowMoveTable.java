@@ -0,0 +1,184 @@
+package systemModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Table of the moves of every row of four tiles collapsed to the left, indexed by the row packed in 16 bits, 4 bits per cell holding the exponent of the value from
+ * the first cell in the lowest bits. The moves are the packed moves, without row or direction, that {@link GameUtil#collapseArray(int[])} would perform, so a row is
+ * collapsed with one lookup instead of rescanning it for every destination; {@link Game} reads the rows and columns in the order of the direction, so the same table
+ * serves the four directions. Rows of another length or with a value above 2^15 or not a power of two fall back to
+ * {@link GameUtil#collapseArray(int[], int[], int)}.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public class RowMoveTable
+{
+	/**
+	 * Number of cells of a row in the table.
+	 */
+	public static final int		ROW_SIZE		= 4;
+
+	/**
+	 * Largest exponent of a value in the table.
+	 */
+	public static final int		MAX_EXPONENT	= 15;
+
+	/**
+	 * Number of rows in the table.
+	 */
+	private static final int	ROWS			= 1 << 4 * ROW_SIZE;
+
+	/**
+	 * Packed moves of every row, ROW_SIZE entries per row of which the first count are used.
+	 */
+	private static final int[]	MOVES			= new int[ROWS * ROW_SIZE];
+
+	/**
+	 * Number of moves of every row.
+	 */
+	private static final byte[]	COUNTS			= new byte[ROWS];
+
+	static
+	{
+		int[] exponents = new int[ROW_SIZE];
+		int[] sources = new int[ROW_SIZE];
+		for (int key = 0; key < ROWS; ++key)
+		{
+			// the tiles in order, then consecutive equal tiles merge pairwise
+			int tiles = 0;
+			for (int j = 0; j < ROW_SIZE; ++j)
+			{
+				int exponent = key >>> 4 * j & 0xF;
+				if (exponent != 0)
+				{
+					exponents[tiles] = exponent;
+					sources[tiles] = j;
+					++tiles;
+				}
+			}
+			int count = 0;
+			for (int k = 0, destination = 0; k < tiles; ++destination)
+			{
+				int value = 1 << exponents[k];
+				if (k + 1 < tiles && exponents[k] == exponents[k + 1])
+				{
+					// a tile already in place takes the other one, as GameUtil.findNextMove does
+					if (sources[k] == destination)
+						MOVES[key * ROW_SIZE + count++] = PackedMove.encode(sources[k + 1], sources[k], destination, value);
+					else
+						MOVES[key * ROW_SIZE + count++] = PackedMove.encode(sources[k], sources[k + 1], destination, value);
+					k += 2;
+				}
+				else
+				{
+					if (sources[k] != destination)
+						MOVES[key * ROW_SIZE + count++] = PackedMove.encode(sources[k], PackedMove.NONE, destination, value);
+					k += 1;
+				}
+			}
+			COUNTS[key] = (byte) count;
+		}
+	}
+
+	/**
+	 * Returns the key of a row in the table.
+	 *
+	 * @param arr
+	 *            row
+	 * @return packed row, or -1 if the row is not in the table
+	 */
+	public static int key(int[] arr)
+	{
+		if (arr.length != ROW_SIZE)
+			return -1;
+		int key = 0;
+		for (int j = 0; j < ROW_SIZE; ++j)
+		{
+			if (arr[j] == 0)
+				continue;
+			int exponent = Integer.numberOfTrailingZeros(arr[j]);
+			if (exponent == 0 || exponent > MAX_EXPONENT || (arr[j] & arr[j] - 1) != 0)
+				return -1;
+			key |= exponent << 4 * j;
+		}
+		return key;
+	}
+
+	/**
+	 * Collapses the array to the left as {@link GameUtil#collapseArray(int[], int[], int)} does, looking the moves up in the table.
+	 *
+	 * @param arr
+	 *            array to be collapsed
+	 * @param moves
+	 *            buffer of packed moves, with room for at least <code>arr.length</code> more moves
+	 * @param count
+	 *            number of moves already in the buffer
+	 * @return number of moves in the buffer after the collapse
+	 */
+	public static int collapseArray(int[] arr, int[] moves, int count)
+	{
+		int key = key(arr);
+		if (key < 0)
+			return GameUtil.collapseArray(arr, moves, count);
+		int rowMoves = COUNTS[key];
+		for (int k = 0; k < rowMoves; ++k)
+		{
+			int move = MOVES[key * ROW_SIZE + k];
+			int value = PackedMove.getValue(move);
+			arr[PackedMove.getOldIndex(move)] = 0;
+			if (PackedMove.isMerged(move))
+			{
+				arr[PackedMove.getOldIndex2(move)] = 0;
+				value *= 2;
+			}
+			arr[PackedMove.getNewIndex(move)] = value;
+			moves[count++] = move;
+		}
+		return count;
+	}
+
+	/**
+	 * Checks every row of the table against {@link GameUtil#collapseArray(int[])}: the same moves in the same order and the same collapsed row. Prints the rows that
+	 * differ and exits with status 1 if there are any.
+	 *
+	 * @param args
+	 *            not used
+	 */
+	public static void main(String[] args)
+	{
+		int[] moves = new int[ROW_SIZE];
+		int mismatches = 0;
+		for (int key = 0; key < ROWS; ++key)
+		{
+			int[] expected = new int[ROW_SIZE];
+			int[] actual = new int[ROW_SIZE];
+			for (int j = 0; j < ROW_SIZE; ++j)
+			{
+				int exponent = key >>> 4 * j & 0xF;
+				expected[j] = exponent == 0 ? 0 : 1 << exponent;
+				actual[j] = expected[j];
+			}
+			String row = Arrays.toString(expected);
+			ArrayList<Move> expectedMoves = GameUtil.collapseArray(expected);
+			int count = collapseArray(actual, moves, 0);
+			boolean same = count == expectedMoves.size() && Arrays.equals(expected, actual);
+			for (int k = 0; same && k < count; ++k)
+			{
+				Move move = expectedMoves.get(k);
+				same = PackedMove.getOldIndex(moves[k]) == move.getOldIndex() && PackedMove.getOldIndex2(moves[k]) == move.getOldIndex2()
+						&& PackedMove.getNewIndex(moves[k]) == move.getNewIndex() && PackedMove.isMerged(moves[k]) == move.isMerged()
+						&& PackedMove.getValue(moves[k]) == move.getValue();
+			}
+			if (!same)
+			{
+				++mismatches;
+				System.out.println("Row " + row + ": expected " + expectedMoves + " " + Arrays.toString(expected) + ", table gives " + count + " moves "
+						+ Arrays.toString(actual));
+			}
+		}
+		System.out.println(ROWS + " rows checked, " + mismatches + " mismatches");
+		if (mismatches > 0)
+			System.exit(1);
+	}
+}
@@ -0,0 +1,667 @@
+package ui;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import algorithm.ActionStatus;
+import algorithm.Board;
+import algorithm.NextMove;
+import algorithm.SearchOptions;
+import algorithm.SearchResult;
+import algorithm.SearchStatistics;
+import algorithm.SpawnSource;
+import algorithm.SplittableSpawnSource;
+import algorithm.TranspositionTable;
+
+/**
+ * Plays games without the GUI on a pool of threads and reports the win rate with its confidence interval, the distributions of the score and of the max tile, and the
+ * throughput of the search. Every game places its new cells from its own {@link SplittableSpawnSource} stream, split in game order from a master source seeded with the
+ * batch seed, and every thread searches with its own transposition table, cleared before each game. Without a time budget a batch therefore replays the same games
+ * whatever the number of threads. With statistics on, every game adds up the {@link SearchStatistics} of its moves, and the games are merged into the report.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+public class BatchSimulator
+{
+	/**
+	 * Two-sided 95% quantile of the normal distribution
+	 */
+	private static final double						Z_95				= 1.959964;
+
+	/**
+	 * Command line usage
+	 */
+	private static final String						USAGE				= "Usage: BatchSimulator [--games N] [--threads N] [--engine MINIMAX|EXPECTIMAX|MONTE_CARLO|MCTS] [--depth N] [--time MILLIS] [--nodes N] [--seed SEED] [--statistics true|false]"
+																				+ " [--rollouts N] [--policy RANDOM|GREEDY] [--rollout-threads N] [--iterations N] [--exploration C]"
+																				+ " [--probability-cutoff P] [--chance-pruning NONE|STAR1]";
+
+	/**
+	 * Transposition table of every thread
+	 */
+	private static final ThreadLocal<TranspositionTable>	TRANSPOSITION_TABLES	= new ThreadLocal<TranspositionTable>()
+	{
+		@Override
+		protected TranspositionTable initialValue()
+		{
+			return new TranspositionTable();
+		}
+	};
+
+	/**
+	 * Search engine
+	 */
+	private NextMove.Engine							engine;
+
+	/**
+	 * Deepest level searched for every move
+	 */
+	private int										depth;
+
+	/**
+	 * Time budget of every move in milliseconds, 0 for none
+	 */
+	private long									timeBudgetMillis;
+
+	/**
+	 * Node budget of every move, 0 for none
+	 */
+	private long									nodeBudget;
+
+	/**
+	 * Number of games
+	 */
+	private int										games				= 100;
+
+	/**
+	 * Number of threads playing games
+	 */
+	private int										threads				= Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Seed of the master spawn source of the batch
+	 */
+	private long									seed				= 1;
+
+	/**
+	 * Whether the searches collect statistics
+	 */
+	private boolean									statistics;
+
+	/**
+	 * Number of rollouts of the Monte Carlo engine after every legal move
+	 */
+	private int										rollouts			= 100;
+
+	/**
+	 * Policy of the moves of the Monte Carlo rollouts
+	 */
+	private NextMove.RolloutPolicy					rolloutPolicy		= NextMove.RolloutPolicy.RANDOM;
+
+	/**
+	 * Number of threads playing the Monte Carlo rollouts of every game
+	 */
+	private int										rolloutThreads		= 1;
+
+	/**
+	 * Number of iterations of the Monte Carlo tree search for every move, 0 for none
+	 */
+	private int										iterations			= 1000;
+
+	/**
+	 * Exploration constant of the Monte Carlo tree search
+	 */
+	private double									exploration			= 0.25;
+
+	/**
+	 * Probability of being reached below which the expectimax engine evaluates a user node by the heuristic, 0 for none
+	 */
+	private double									probabilityCutoff;
+
+	/**
+	 * Pruning of the computer nodes of the expectimax engine
+	 */
+	private NextMove.ChancePruning					chancePruning		= NextMove.ChancePruning.NONE;
+
+	/**
+	 * Constructor
+	 *
+	 * @param engine
+	 *            search engine
+	 * @param depth
+	 *            deepest level searched for every move
+	 */
+	public BatchSimulator(NextMove.Engine engine, int depth)
+	{
+		this.engine = engine;
+		this.depth = depth;
+	}
+
+	/**
+	 * Runs a batch from the command line.
+	 *
+	 * @param args
+	 *            flags, see {@link #USAGE}
+	 * @throws InterruptedException
+	 *             interrupted while waiting for the games
+	 */
+	public static void main(String[] args) throws InterruptedException
+	{
+		BatchSimulator simulator = new BatchSimulator(NextMove.Engine.EXPECTIMAX, 5);
+		try
+		{
+			for (int k = 0; k < args.length; k += 2)
+			{
+				if (k + 1 >= args.length)
+					throw new IllegalArgumentException("Missing value of " + args[k]);
+				String value = args[k + 1];
+				switch (args[k])
+				{
+					case "--games":
+						simulator.setGames(Integer.parseInt(value));
+						break;
+					case "--threads":
+						simulator.setThreads(Integer.parseInt(value));
+						break;
+					case "--engine":
+						simulator.setEngine(NextMove.Engine.valueOf(value.toUpperCase()));
+						break;
+					case "--depth":
+						simulator.setDepth(Integer.parseInt(value));
+						break;
+					case "--time":
+						simulator.setTimeBudgetMillis(Long.parseLong(value));
+						break;
+					case "--nodes":
+						simulator.setNodeBudget(Long.parseLong(value));
+						break;
+					case "--seed":
+						simulator.setSeed(Long.parseLong(value));
+						break;
+					case "--statistics":
+						if (!value.equals("true") && !value.equals("false"))
+							throw new IllegalArgumentException("Expected true or false: " + value);
+						simulator.setStatistics(Boolean.parseBoolean(value));
+						break;
+					case "--rollouts":
+						simulator.setRollouts(Integer.parseInt(value));
+						break;
+					case "--policy":
+						simulator.setRolloutPolicy(NextMove.RolloutPolicy.valueOf(value.toUpperCase()));
+						break;
+					case "--rollout-threads":
+						simulator.setRolloutThreads(Integer.parseInt(value));
+						break;
+					case "--iterations":
+						simulator.setIterations(Integer.parseInt(value));
+						break;
+					case "--exploration":
+						simulator.setExploration(Double.parseDouble(value));
+						break;
+					case "--probability-cutoff":
+						simulator.setProbabilityCutoff(Double.parseDouble(value));
+						break;
+					case "--chance-pruning":
+						simulator.setChancePruning(NextMove.ChancePruning.valueOf(value.toUpperCase()));
+						break;
+					default:
+						throw new IllegalArgumentException("Unknown flag " + args[k]);
+				}
+			}
+			simulator.checkBudget();
+		}
+		catch (IllegalArgumentException e)
+		{
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+		simulator.run(System.out);
+	}
+
+	/**
+	 * Sets the search engine.
+	 *
+	 * @param engine
+	 *            engine
+	 */
+	public void setEngine(NextMove.Engine engine)
+	{
+		this.engine = engine;
+	}
+
+	/**
+	 * Sets the deepest level searched for every move.
+	 *
+	 * @param depth
+	 *            maximum depth
+	 */
+	public void setDepth(int depth)
+	{
+		if (depth < 1)
+			throw new IllegalArgumentException("Depth must be positive: " + depth);
+		this.depth = depth;
+	}
+
+	/**
+	 * Sets the time budget of every move. Games with a time budget depend on the speed of the machine and are not reproducible.
+	 *
+	 * @param timeBudgetMillis
+	 *            time budget in milliseconds, 0 for none
+	 */
+	public void setTimeBudgetMillis(long timeBudgetMillis)
+	{
+		this.timeBudgetMillis = timeBudgetMillis;
+	}
+
+	/**
+	 * Sets the node budget of every move.
+	 *
+	 * @param nodeBudget
+	 *            node budget, 0 for none
+	 */
+	public void setNodeBudget(long nodeBudget)
+	{
+		this.nodeBudget = nodeBudget;
+	}
+
+	/**
+	 * Sets the number of games.
+	 *
+	 * @param games
+	 *            number of games
+	 */
+	public void setGames(int games)
+	{
+		if (games < 1)
+			throw new IllegalArgumentException("Number of games must be positive: " + games);
+		this.games = games;
+	}
+
+	/**
+	 * Sets the number of threads playing games.
+	 *
+	 * @param threads
+	 *            number of threads
+	 */
+	public void setThreads(int threads)
+	{
+		if (threads < 1)
+			throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+		this.threads = threads;
+	}
+
+	/**
+	 * Sets the seed of the master spawn source of the batch.
+	 *
+	 * @param seed
+	 *            seed
+	 */
+	public void setSeed(long seed)
+	{
+		this.seed = seed;
+	}
+
+	/**
+	 * Sets whether the searches collect statistics, printed with the report.
+	 *
+	 * @param statistics
+	 *            whether statistics are collected
+	 */
+	public void setStatistics(boolean statistics)
+	{
+		this.statistics = statistics;
+	}
+
+	/**
+	 * Sets the number of rollouts of the Monte Carlo engine after every legal move.
+	 *
+	 * @param rollouts
+	 *            rollouts per move
+	 */
+	public void setRollouts(int rollouts)
+	{
+		if (rollouts < 1)
+			throw new IllegalArgumentException("Number of rollouts must be positive: " + rollouts);
+		this.rollouts = rollouts;
+	}
+
+	/**
+	 * Sets the policy of the moves of the Monte Carlo rollouts.
+	 *
+	 * @param rolloutPolicy
+	 *            rollout policy
+	 */
+	public void setRolloutPolicy(NextMove.RolloutPolicy rolloutPolicy)
+	{
+		this.rolloutPolicy = rolloutPolicy;
+	}
+
+	/**
+	 * Sets the number of threads playing the Monte Carlo rollouts of every game, on top of the threads playing games.
+	 *
+	 * @param rolloutThreads
+	 *            rollout threads
+	 */
+	public void setRolloutThreads(int rolloutThreads)
+	{
+		if (rolloutThreads < 1)
+			throw new IllegalArgumentException("Number of rollout threads must be positive: " + rolloutThreads);
+		this.rolloutThreads = rolloutThreads;
+	}
+
+	/**
+	 * Sets the number of iterations of the Monte Carlo tree search for every move.
+	 *
+	 * @param iterations
+	 *            iterations, 0 for none, the time or node budget then stops the search
+	 */
+	public void setIterations(int iterations)
+	{
+		if (iterations < 0)
+			throw new IllegalArgumentException("Number of iterations must not be negative: " + iterations);
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Checks that every search stops: the Monte Carlo tree search without a number of iterations needs a time or node budget.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the searches would never stop
+	 */
+	public void checkBudget()
+	{
+		if (engine == NextMove.Engine.MCTS && iterations == 0 && timeBudgetMillis <= 0 && nodeBudget <= 0)
+			throw new IllegalArgumentException("Unlimited iterations need a time or node budget");
+	}
+
+	/**
+	 * Sets the exploration constant of the Monte Carlo tree search.
+	 *
+	 * @param exploration
+	 *            exploration constant
+	 */
+	public void setExploration(double exploration)
+	{
+		if (!(exploration >= 0))
+			throw new IllegalArgumentException("Exploration constant must not be negative: " + exploration);
+		this.exploration = exploration;
+	}
+
+	/**
+	 * Sets the probability cutoff of the expectimax engine.
+	 *
+	 * @param probabilityCutoff
+	 *            probability of being reached below which a user node is evaluated by the heuristic, 0 for none
+	 */
+	public void setProbabilityCutoff(double probabilityCutoff)
+	{
+		if (!(probabilityCutoff >= 0 && probabilityCutoff <= 1))
+			throw new IllegalArgumentException("Probability cutoff must be between 0 and 1: " + probabilityCutoff);
+		this.probabilityCutoff = probabilityCutoff;
+	}
+
+	/**
+	 * Sets the pruning of the computer nodes of the expectimax engine.
+	 *
+	 * @param chancePruning
+	 *            chance pruning, NONE for none
+	 */
+	public void setChancePruning(NextMove.ChancePruning chancePruning)
+	{
+		this.chancePruning = chancePruning;
+	}
+
+	/**
+	 * Plays the games and prints the report.
+	 *
+	 * @param out
+	 *            stream of the report
+	 * @throws InterruptedException
+	 *             interrupted while waiting for the games
+	 */
+	public void run(PrintStream out) throws InterruptedException
+	{
+		String search = "depth " + depth;
+		if (engine == NextMove.Engine.EXPECTIMAX && probabilityCutoff > 0)
+			search += ", probability cutoff " + probabilityCutoff;
+		if (engine == NextMove.Engine.EXPECTIMAX && chancePruning != NextMove.ChancePruning.NONE)
+			search += ", " + chancePruning + " pruning";
+		if (engine == NextMove.Engine.MONTE_CARLO)
+			search = String.format("%d %s rollouts per move on %d threads", rollouts, rolloutPolicy, rolloutThreads);
+		else if (engine == NextMove.Engine.MCTS)
+			search = String.format("%s iterations per move, exploration %s, %s rollouts on %d threads", iterations > 0 ? iterations : "unlimited", exploration,
+					rolloutPolicy, rolloutThreads);
+		out.println(String.format("%s %s%s%s, %d games (seed %d) on %d threads", engine, search, timeBudgetMillis > 0 ? ", " + timeBudgetMillis + " ms" : "",
+				nodeBudget > 0 ? ", " + nodeBudget + " nodes" : "", games, seed, threads));
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<GameRecord>> futures = new ArrayList<>();
+		long start = System.nanoTime();
+		SplittableSpawnSource master = new SplittableSpawnSource(seed);
+		for (int k = 0; k < games; ++k)
+		{
+			final SpawnSource spawnSource = master.split();
+			futures.add(executor.submit(new Callable<GameRecord>()
+			{
+				@Override
+				public GameRecord call() throws CloneNotSupportedException
+				{
+					return play(spawnSource);
+				}
+			}));
+		}
+		List<GameRecord> records = new ArrayList<>();
+		try
+		{
+			for (Future<GameRecord> future : futures)
+				records.add(future.get());
+		}
+		catch (ExecutionException e)
+		{
+			throw new IllegalStateException("Game failed", e.getCause());
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+		printReport(out, records, System.nanoTime() - start);
+	}
+
+	/**
+	 * Plays one game.
+	 *
+	 * @param spawnSource
+	 *            source of the new cells
+	 * @return record of the game
+	 * @throws CloneNotSupportedException
+	 *             clone not supported
+	 */
+	private GameRecord play(SpawnSource spawnSource) throws CloneNotSupportedException
+	{
+		TranspositionTable table = TRANSPOSITION_TABLES.get();
+		table.clear();
+		SearchOptions options = new SearchOptions(engine, depth);
+		options.setTimeBudgetMillis(timeBudgetMillis);
+		options.setNodeBudget(nodeBudget);
+		options.setTranspositionTable(table);
+		options.setCollectStatistics(statistics);
+		options.setRollouts(rollouts);
+		options.setRolloutPolicy(rolloutPolicy);
+		options.setRolloutThreads(rolloutThreads);
+		options.setIterations(iterations);
+		options.setExploration(exploration);
+		options.setProbabilityCutoff(probabilityCutoff);
+		options.setChancePruning(chancePruning);
+		GameRecord record = new GameRecord();
+		if (statistics)
+			record.statistics = new SearchStatistics();
+		Board theGame = new Board(spawnSource);
+		ActionStatus result = ActionStatus.CONTINUE;
+		while (result == ActionStatus.CONTINUE || result == ActionStatus.INVALID_MOVE)
+		{
+			// a board without legal moves has nothing to search
+			if (theGame.legalMoveMask() == 0)
+				break;
+			SearchResult hint = NextMove.search(theGame, options);
+			if (hint.getDirection() == null)
+				break;
+			record.nodes += hint.getNodes();
+			record.searchNanos += hint.getElapsedNanos();
+			record.rollouts += hint.getRollouts();
+			if (record.statistics != null)
+				record.statistics.merge(hint.getStatistics());
+			result = theGame.action(hint.getDirection());
+			++record.moves;
+		}
+		record.won = result == ActionStatus.WIN;
+		record.score = theGame.getScore();
+		record.finalBoard = theGame.toBitBoard();
+		for (int[] row : theGame.getBoardArray())
+			for (int value : row)
+				record.maxTile = Math.max(record.maxTile, value);
+		return record;
+	}
+
+	/**
+	 * Prints the report of a batch.
+	 *
+	 * @param out
+	 *            stream of the report
+	 * @param records
+	 *            records of the games
+	 * @param elapsedNanos
+	 *            wall clock time of the batch
+	 */
+	private static void printReport(PrintStream out, List<GameRecord> records, long elapsedNanos)
+	{
+		int n = records.size();
+		int wins = 0;
+		long moves = 0;
+		long nodes = 0;
+		long searchNanos = 0;
+		long rollouts = 0;
+		long fingerprint = 0;
+		int[] scores = new int[n];
+		TreeMap<Integer, Integer> maxTiles = new TreeMap<>();
+		SearchStatistics statistics = null;
+		for (int k = 0; k < n; ++k)
+		{
+			GameRecord record = records.get(k);
+			if (record.won)
+				++wins;
+			moves += record.moves;
+			nodes += record.nodes;
+			searchNanos += record.searchNanos;
+			rollouts += record.rollouts;
+			fingerprint = 31 * fingerprint + record.finalBoard;
+			scores[k] = record.score;
+			Integer count = maxTiles.get(record.maxTile);
+			maxTiles.put(record.maxTile, count == null ? 1 : count + 1);
+			if (record.statistics != null)
+			{
+				if (statistics == null)
+					statistics = new SearchStatistics();
+				statistics.merge(record.statistics);
+			}
+		}
+		// Wilson score interval, which stays inside [0, 1] for win rates close to 0 or 1
+		double rate = (double) wins / n;
+		double z2 = Z_95 * Z_95;
+		double center = (rate + z2 / (2 * n)) / (1 + z2 / n);
+		double halfWidth = Z_95 * Math.sqrt(rate * (1 - rate) / n + z2 / (4.0 * n * n)) / (1 + z2 / n);
+		out.println(String.format("Wins: %d of %d, %.1f%% (95%% confidence interval %.1f%% to %.1f%%)", wins, n, 100 * rate, 100 * (center - halfWidth),
+				100 * (center + halfWidth)));
+		Arrays.sort(scores);
+		long totalScore = 0;
+		for (int score : scores)
+			totalScore += score;
+		out.println(String.format("Score: mean %.0f, min %d, 25%% %d, median %d, 75%% %d, max %d", (double) totalScore / n, scores[0], percentile(scores, 25),
+				percentile(scores, 50), percentile(scores, 75), scores[n - 1]));
+		StringBuilder tiles = new StringBuilder("Max tile:");
+		for (Integer tile : maxTiles.descendingKeySet())
+			tiles.append(String.format(" %d in %.1f%%,", tile, 100.0 * maxTiles.get(tile) / n));
+		tiles.setLength(tiles.length() - 1);
+		out.println(tiles);
+		double seconds = elapsedNanos / 1e9;
+		double searchSeconds = searchNanos / 1e9;
+		out.println(String.format("Fingerprint of the final boards: %016x", fingerprint));
+		out.println(String.format("%d moves in %.1f s: %.1f moves/s, %.1f decisions/s per thread, %.0f nodes/s per thread", moves, seconds, moves / seconds,
+				moves / Math.max(searchSeconds, 1e-9), nodes / Math.max(searchSeconds, 1e-9)));
+		if (rollouts > 0)
+			out.println(String.format("%d rollouts: %.0f rollouts/s per thread", rollouts, rollouts / Math.max(searchSeconds, 1e-9)));
+		if (statistics != null)
+			out.println(statistics);
+	}
+
+	/**
+	 * Nearest-rank percentile of sorted values.
+	 *
+	 * @param sorted
+	 *            sorted values, not empty
+	 * @param percent
+	 *            percentile, 0 to 100
+	 * @return value
+	 */
+	private static int percentile(int[] sorted, int percent)
+	{
+		int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+		return sorted[Math.max(rank, 1) - 1];
+	}
+
+	/**
+	 * Outcome of one game.
+	 */
+	private static class GameRecord
+	{
+		/**
+		 * Whether the game was won
+		 */
+		private boolean				won;
+
+		/**
+		 * Final score
+		 */
+		private int					score;
+
+		/**
+		 * Largest tile reached
+		 */
+		private int					maxTile;
+
+		/**
+		 * Final packed board
+		 */
+		private long				finalBoard;
+
+		/**
+		 * Number of moves played
+		 */
+		private long				moves;
+
+		/**
+		 * Number of nodes searched
+		 */
+		private long				nodes;
+
+		/**
+		 * Time spent searching, in nanoseconds
+		 */
+		private long				searchNanos;
+
+		/**
+		 * Number of Monte Carlo rollouts played
+		 */
+		private long				rollouts;
+
+		/**
+		 * Statistics of the searches, null if they are not collected
+		 */
+		private SearchStatistics	statistics;
+	}
+}
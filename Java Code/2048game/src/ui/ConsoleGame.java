@@ -12,15 +12,23 @@ import algorithm.*;
  */
 public class ConsoleGame
 {
+	/**
+	 * Depth of the expectimax search, which has no pruning and is more expensive per level than the Alpha-Beta pruning.
+	 */
+	private static final int	EXPECTIMAX_DEPTH	= 5;
+
+	/**
+	 * Number of games played to estimate the accuracy, see {@link BatchSimulator} for larger batches.
+	 */
+	private static final int	ACCURACY_GAMES		= 10;
+
 	/**
 	 * Main function of the game.
 	 * 
 	 * @param args
 	 *            args
-	 * @throws CloneNotSupportedException
-	 *             clone not supported
 	 */
-	public static void main(String[] args) throws CloneNotSupportedException
+	public static void main(String[] args)
 	{
 		while (true)
 		{
@@ -36,6 +44,12 @@ public class ConsoleGame
 						calculateAccuracy();
 						break;
 					case 2:
+						calculateAccuracy(NextMove.Engine.EXPECTIMAX, EXPECTIMAX_DEPTH);
+						break;
+					case 3:
+						calculateAccuracy(NextMove.Engine.EXPECTIMAX, EXPECTIMAX_DEPTH, true);
+						break;
+					case 4:
 						return;
 					default:
 						throw new Exception();
@@ -54,42 +68,57 @@ public class ConsoleGame
 	public static void printMenu()
 	{
 		System.out.println("1. Calculate accuracy");
-		System.out.println("2. Quit");
-		System.out.println("Enter a number from 1-2:");
+		System.out.println("2. Calculate accuracy with expectimax");
+		System.out.println("3. Calculate accuracy with expectimax and search statistics");
+		System.out.println("4. Quit");
+		System.out.println("Enter a number from 1-4:");
 	}
 
 	/**
 	 * Estimates the accuracy of the AI solver by running multiple games.
 	 * 
-	 * @throws CloneNotSupportedException
-	 *             clone not supported
+	 * @throws InterruptedException
+	 *             interrupted while waiting for the games
 	 */
-	public static void calculateAccuracy() throws CloneNotSupportedException
+	public static void calculateAccuracy() throws InterruptedException
 	{
-		int wins = 0;
-		int total = 10;
-		System.out.println("Running " + total + " games to estimate the accuracy:");
-		for (int i = 0; i < total; ++i)
-		{
-			int hintDepth = 7;
-			Board theGame = new Board();
-			DirectionStatus hint = NextMove.findBestMove(theGame, hintDepth);
-			ActionStatus result = ActionStatus.CONTINUE;
-			while (result == ActionStatus.CONTINUE || result == ActionStatus.INVALID_MOVE)
-			{
-				result = theGame.action(hint);
-				if (result == ActionStatus.CONTINUE || result == ActionStatus.INVALID_MOVE)
-					hint = NextMove.findBestMove(theGame, hintDepth);
-			}
-			if (result == ActionStatus.WIN)
-			{
-				++wins;
-				System.out.println("Game " + (i + 1) + " - won");
-			}
-			else
-				System.out.println("Game " + (i + 1) + " - lost");
-		}
-		System.out.println(wins + " wins out of " + total + " games.");
+		calculateAccuracy(NextMove.Engine.MINIMAX, 7);
+	}
+
+	/**
+	 * Estimates the accuracy of the given search engine by running multiple games on the {@link BatchSimulator}.
+	 * 
+	 * @param engine
+	 *            search engine
+	 * @param hintDepth
+	 *            depth of tree to be searched
+	 * @throws InterruptedException
+	 *             interrupted while waiting for the games
+	 */
+	public static void calculateAccuracy(NextMove.Engine engine, int hintDepth) throws InterruptedException
+	{
+		calculateAccuracy(engine, hintDepth, false);
+	}
+
+	/**
+	 * Estimates the accuracy of the given search engine by running multiple games on the {@link BatchSimulator}, and prints the statistics of the searches if asked.
+	 * 
+	 * @param engine
+	 *            search engine
+	 * @param hintDepth
+	 *            depth of tree to be searched
+	 * @param statistics
+	 *            whether to print the statistics of the searches
+	 * @throws InterruptedException
+	 *             interrupted while waiting for the games
+	 */
+	public static void calculateAccuracy(NextMove.Engine engine, int hintDepth, boolean statistics) throws InterruptedException
+	{
+		BatchSimulator simulator = new BatchSimulator(engine, hintDepth);
+		simulator.setGames(ACCURACY_GAMES);
+		simulator.setStatistics(statistics);
+		simulator.setSeed(System.currentTimeMillis());
+		simulator.run(System.out);
 	}
 
 	/**
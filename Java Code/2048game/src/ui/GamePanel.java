@@ -1,17 +1,24 @@
 package ui;
 
+import java.awt.AlphaComposite;
 import java.awt.Color;
-import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 import systemModel.Direction;
 import systemModel.Game;
@@ -20,11 +27,18 @@ import systemModel.Move;
 import systemModel.Result;
 import systemModel.TilePosition;
 import algorithm.NextMove;
+import algorithm.BitBoard;
 import algorithm.Board;
 import algorithm.DirectionStatus;
+import algorithm.Ponderer;
+import algorithm.SearchOptions;
+import algorithm.SearchResult;
 
 /**
- * User interface for the main grid
+ * User interface for the main grid. The solver searches on a thread of its own, so the animation and the keys stay responsive while it thinks, and its move is played
+ * on the event dispatch thread once the search completes. While a move animates, a {@link Ponderer} searches the boards its new tile may lead to, so the next search
+ * is often answered at once. In continuous autoplay the solver searches the next move as soon as it plays one, and the animations are
+ * shortened, or skipped, to fit the time between two moves.
  * 
  * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
  */
@@ -41,22 +55,34 @@ public class GamePanel extends JPanel
 	private static final Color	BACKGROUND_COLOR	= new Color(205, 197, 191);
 
 	/**
-	 * Colors cells
+	 * Deepest level searched by the solver.
 	 */
-	private Color[]				colors				= { 
-			null, 
-			new Color(255, 250, 240), // 2
-			new Color(253, 245, 230), // 4
-			new Color(255, 218, 185), // 8
-			new Color(253, 150, 122), // 16
-			new Color(250, 128, 114), // 32
-			new Color(255, 127, 80), // 64
-			new Color(238, 232, 170), // 128
-			new Color(238, 193, 37), // 256
-			new Color(238, 180, 34), // 512
-			new Color(218, 165, 32), // 1024
-			new Color(238, 201, 0), // 2048
-													};
+	private static final int	AI_MAX_DEPTH		= 7;
+
+	/**
+	 * Time budget of one solver move, in milliseconds.
+	 */
+	private static final long	AI_TIME_BUDGET		= 200;
+
+	/**
+	 * Status shown while the solver searches.
+	 */
+	private static final String	THINKING			= "Thinking...";
+
+	/**
+	 * Status shown in continuous autoplay before the move rate is known.
+	 */
+	private static final String	AUTOPLAY			= "Autoplay";
+
+	/**
+	 * Fewest frames of an animation in continuous autoplay, shorter ones are skipped.
+	 */
+	private static final int	MIN_FRAMES			= 2;
+
+	/**
+	 * Weight of the latest move in the average time between two moves of the continuous autoplay.
+	 */
+	private static final double	MOVE_RATE_SMOOTHING	= 0.2;
 
 	/**
 	 * Flag indicating whether to try to animate the moving tiles.
@@ -93,6 +119,31 @@ public class GamePanel extends JPanel
 	 */
 	private int					newTileCount		= 0;
 
+	/**
+	 * Number of frames over which the collapsing tiles of the current move are animated.
+	 */
+	private int					collapseFrames		= framesPerCollapse;
+
+	/**
+	 * Number of frames over which the new tile of the current move appears.
+	 */
+	private int					newTileFrames		= framesPerNewTile;
+
+	/**
+	 * Whether the solver plays one move after the other without waiting for keys.
+	 */
+	private boolean				continuous			= false;
+
+	/**
+	 * Value of {@link System#nanoTime()} when the continuous autoplay played its last move, 0 before its first move.
+	 */
+	private long				lastMoveNanos		= 0;
+
+	/**
+	 * Average time between two moves of the continuous autoplay, in milliseconds.
+	 */
+	private double				moveIntervalMillis	= 0;
+
 	/**
 	 * Score panel associated with the game.
 	 */
@@ -118,6 +169,36 @@ public class GamePanel extends JPanel
 	 */
 	private Tile				newTile				= null;
 
+	/**
+	 * Images of the tile values.
+	 */
+	private final TileImages	tileImages			= new TileImages();
+
+	/**
+	 * Thread of the solver searches, a daemon so it does not keep the application alive.
+	 */
+	private final ExecutorService	solver;
+
+	/**
+	 * Options of the solver searches.
+	 */
+	private final SearchOptions	searchOptions;
+
+	/**
+	 * Searches the boards that may follow the last move, while it animates.
+	 */
+	private final Ponderer		ponderer;
+
+	/**
+	 * Search running on the solver thread, null if the solver is idle.
+	 */
+	private Future<?>			pendingSearch		= null;
+
+	/**
+	 * Number of the latest search request. A search whose number is no longer the latest is stale and its move is dropped.
+	 */
+	private int					searchGeneration	= 0;
+
 	/**
 	 * Constructs a GamePanel with the given game and associated ScorePanel.
 	 * 
@@ -137,6 +218,19 @@ public class GamePanel extends JPanel
 		this.useAnimation = useAnimation;
 		this.verbose = verbose;
 		timer = new Timer(frameRate, new TimerCallback());
+		solver = Executors.newSingleThreadExecutor(new ThreadFactory()
+		{
+			@Override
+			public Thread newThread(Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, "solver");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		searchOptions = new SearchOptions(NextMove.Engine.MINIMAX, AI_MAX_DEPTH);
+		searchOptions.setTimeBudgetMillis(AI_TIME_BUDGET);
+		ponderer = new Ponderer(searchOptions);
 		KeyListener listener = new MyKeyListener();
 		this.addKeyListener(listener);
 		for (int row = 0; row < game.getSize(); row += 1)
@@ -154,14 +248,19 @@ public class GamePanel extends JPanel
 	@Override
 	public void paintComponent(Graphics g)
 	{
+		Rectangle clip = g.getClipBounds();
+		if (clip == null)
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
 		g.setColor(BACKGROUND_COLOR);
-		g.fillRect(0, 0, getWidth(), getHeight());
+		g.fillRect(clip.x, clip.y, clip.width, clip.height);
 		for (Tile t : tiles)
-			paintTile(g, t);
+			if (clip.intersects(t.getCurrentX(), t.getCurrentY(), GameMain.TILE_SIZE, GameMain.TILE_SIZE))
+				paintTile(g, t);
 	}
 
 	/**
-	 * Paint the given tile using the given graphics context. If animation is taking place, the current new tile is treated specially.
+	 * Paint the given tile from its cached image using the given graphics context. If animation is taking place, the current new tile is treated specially: it is hidden
+	 * while the other tiles collapse and then fades in.
 	 * 
 	 * @param g
 	 *            graphics
@@ -172,52 +271,34 @@ public class GamePanel extends JPanel
 	{
 		if (t == newTile && frameCount > 0)
 			return;
-		int x = t.getCurrentX();
-		int y = t.getCurrentY();
-		Color c = getColor(t);
+		BufferedImage image = tileImages.get(t.getCurrentValue());
 		if (t == newTile && newTileCount > 0)
 		{
-			int bRed = BACKGROUND_COLOR.getRed();
-			int bGreen = BACKGROUND_COLOR.getGreen();
-			int bBlue = BACKGROUND_COLOR.getBlue();
-			int red = bRed + (c.getRed() - bRed) / framesPerNewTile * (framesPerNewTile - newTileCount);
-			int green = bGreen + (c.getGreen() - bGreen) / framesPerNewTile * (framesPerNewTile - newTileCount);
-			int blue = bBlue + (c.getBlue() - bBlue) / framesPerNewTile * (framesPerNewTile - newTileCount);
-			c = new Color(red, green, blue);
+			Graphics2D g2 = (Graphics2D) g.create();
+			g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) (newTileFrames - newTileCount) / newTileFrames));
+			g2.drawImage(image, t.getCurrentX(), t.getCurrentY(), null);
+			g2.dispose();
 		}
-		g.setColor(c);
-		g.fillRoundRect(x + 4, y + 4, GameMain.TILE_SIZE - 8, GameMain.TILE_SIZE - 8, 10, 10);
-		Font f = new Font(Font.SANS_SERIF, Font.PLAIN, GameMain.SCORE_FONT);
-		g.setFont(f);
-		FontMetrics fm = g.getFontMetrics(f);
-		String text = "" + t.getCurrentValue();
-		int h = fm.getHeight();
-		int w = fm.stringWidth(text);
-		int textX = x + GameMain.TILE_SIZE / 2 - (w / 2);
-		int textY = y + GameMain.TILE_SIZE / 2 + (h / 2) - 2;
-		g.setColor(Color.BLACK);
-		g.drawString(text, textX, textY);
+		else
+			g.drawImage(image, t.getCurrentX(), t.getCurrentY(), null);
 	}
 
 	/**
-	 * Pick a color for the tile based on the number.
+	 * Adds the area of a tile at its current position to a region.
 	 * 
+	 * @param region
+	 *            region, null if empty
 	 * @param t
 	 *            tile
-	 * @return tile color
+	 * @return region with the tile
 	 */
-	private Color getColor(Tile t)
+	private static Rectangle addTileArea(Rectangle region, Tile t)
 	{
-		int value = t.getCurrentValue();
-		int count = 1;
-		int p = 2;
-		while (p < value)
-		{
-			count += 1;
-			p *= 2;
-		}
-		int index = Math.max(Math.min(count, colors.length - 1), 0);
-		return colors[index];
+		Rectangle area = new Rectangle(t.getCurrentX(), t.getCurrentY(), GameMain.TILE_SIZE, GameMain.TILE_SIZE);
+		if (region == null)
+			return area;
+		region.add(area);
+		return region;
 	}
 
 	/**
@@ -312,11 +393,11 @@ public class GamePanel extends JPanel
 					log("WARNING: attempt to move from empty cell " + row2 + " " + col2);
 				if (before[row2][col2].getCurrentValue() != value)
 					log("WARNING: move from " + row2 + " " + col2 + " has incorrect value");
-				before[row][col].setNew(newCol, newRow, value + value, framesPerCollapse);
-				before[row2][col2].setNew(newCol, newRow, value + value, framesPerCollapse);
+				before[row][col].setNew(newCol, newRow, value + value, collapseFrames);
+				before[row2][col2].setNew(newCol, newRow, value + value, collapseFrames);
 			}
 			else
-				before[row][col].setNew(newCol, newRow, value, framesPerCollapse);
+				before[row][col].setNew(newCol, newRow, value, collapseFrames);
 			normalizedMoves.add(m);
 		}
 		return true;
@@ -417,24 +498,297 @@ public class GamePanel extends JPanel
 	}
 
 	/**
-	 * Listener for timer events. The actionPerformed method is invoked each time the timer fires and the call to repaint() at the bottom of the method causes the panel to be redrawn.
+	 * Collapses the grid in the given direction and animates the move. Outside continuous autoplay, the boards the new tile may lead to are then pondered.
+	 * 
+	 * @param dir
+	 *            direction
+	 */
+	private void play(Direction dir)
+	{
+		// log("Grid before collapse:");
+		// printGrid();
+		boolean animationSetupOk = true;
+		collapseFrames = animationFrames(framesPerCollapse);
+		newTileFrames = animationFrames(framesPerNewTile);
+		Result gameResult;
+		if (!useAnimation || collapseFrames == 0)
+		{
+			gameResult = game.collapse(dir);
+			log("Grid after collapse:");
+			printGrid();
+		}
+		else
+		{
+			stopAnimation();
+			Tile[][] before = initializeFromGame();
+			gameResult = game.collapse(dir);
+			log("Grid after collapse:");
+			printGrid();
+			ArrayList<Move> moves = gameResult.getMoves();
+			if (moves.size() == 0)
+				log("Result contains no moves in this direction");
+			else
+			{
+				ArrayList<NormalizedMove> normalizedMoves = new ArrayList<>();
+				boolean validMoves = createNormalizedMoves(moves, normalizedMoves, before);
+				if (!validMoves)
+				{
+					log("ERROR: unable to attempt animation due to errors in move descriptions");
+					animationSetupOk = false;
+				}
+				TilePosition newTilePosition = gameResult.getNewTile();
+				newTile = new Tile(newTilePosition.getCol(), newTilePosition.getRow(), newTilePosition.getValue());
+				if (newTile == null)
+				{
+					animationSetupOk = false;
+					log("ERROR: unable to attempt animation due to missing new tile position");
+				}
+				if (validMoves && newTile != null)
+				{
+					tiles.clear();
+					for (int row = 0; row < game.getSize(); row += 1)
+						for (int col = 0; col < game.getSize(); col += 1)
+							if (before[row][col] != null)
+							{
+								Tile t = before[row][col];
+								tiles.add(t);
+							}
+					frameCount = collapseFrames;
+					timer.start();
+				}
+			}
+		}
+		if (!useAnimation || collapseFrames == 0 || !animationSetupOk)
+		{
+			stopAnimation();
+			scorePanel.updateScore(game.getScore());
+			tiles.clear();
+			for (int row = 0; row < game.getSize(); row += 1)
+				for (int col = 0; col < game.getSize(); col += 1)
+				{
+					int value = game.getCell(row, col);
+					if (value > 0)
+					{
+						Tile t = new Tile(col, row, value);
+						tiles.add(t);
+					}
+				}
+		}
+		repaint();
+		TilePosition landed = gameResult.getNewTile();
+		if (!continuous && landed != null)
+		{
+			long afterMove = BitBoard.setExponent(BitBoard.fromArray(game.getGrid()), Board.BOARD_SIZE * landed.getRow() + landed.getCol(), 0);
+			ponderer.ponder(afterMove, game.getScore());
+		}
+	}
+
+	/**
+	 * Starts a solver search of the current grid, unless one is already running. The grid is copied here, on the event dispatch thread, and the move found is played
+	 * by {@link #finishSearch(int, DirectionStatus)}. A board the pondering searched is played at once.
+	 */
+	private void requestAutoPlay()
+	{
+		if (pendingSearch != null)
+			return;
+		ponderer.stop();
+		final int generation = ++searchGeneration;
+		final long board = BitBoard.fromArray(game.getGrid());
+		final int score = game.getScore();
+		SearchResult pondered = continuous ? null : ponderer.lookup(board);
+		if (pondered != null)
+		{
+			finishSearch(generation, pondered.getDirection());
+			return;
+		}
+		if (!continuous)
+			scorePanel.updateStatus(THINKING);
+		pendingSearch = solver.submit(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					final DirectionStatus hint = NextMove.findBestMove(new Board(board, score), searchOptions);
+					SwingUtilities.invokeLater(new Runnable()
+					{
+						@Override
+						public void run()
+						{
+							finishSearch(generation, hint);
+						}
+					});
+				}
+				catch (CloneNotSupportedException e)
+				{
+					e.printStackTrace();
+					SwingUtilities.invokeLater(new Runnable()
+					{
+						@Override
+						public void run()
+						{
+							if (generation == searchGeneration)
+								cancelSearch();
+						}
+					});
+				}
+			}
+		});
+	}
+
+	/**
+	 * Plays the move found by a solver search, on the event dispatch thread. The move of a stale search is dropped.
+	 * 
+	 * @param generation
+	 *            number of the search request
+	 * @param hint
+	 *            move found, null if no move is left
+	 */
+	private void finishSearch(int generation, DirectionStatus hint)
+	{
+		if (generation != searchGeneration)
+			return;
+		pendingSearch = null;
+		if (continuous)
+			countContinuousMove();
+		else if (ponderer.getLookups() > 0)
+			scorePanel.updateStatus(String.format("Ponder hits: %d of %d (%.0f%%)", ponderer.getHits(), ponderer.getLookups(), 100 * ponderer.getHitRate()));
+		else
+			scorePanel.updateStatus(null);
+		log("Best move " + hint);
+		if (hint == null)
+		{
+			JOptionPane.showMessageDialog(null, "GAME OVER! CLICK OK TO CLOSE");
+			if (JOptionPane.OK_OPTION == 1)
+				;
+			System.exit(0);
+		}
+		play(toDirection(hint));
+		if (continuous)
+			requestAutoPlay();
+	}
+
+	/**
+	 * Cancels the running solver search, if any. The search is interrupted, which spends its budget, and its move will be dropped.
+	 */
+	private void cancelSearch()
+	{
+		if (pendingSearch == null)
+			return;
+		pendingSearch.cancel(true);
+		pendingSearch = null;
+		++searchGeneration;
+		scorePanel.updateStatus(null);
+	}
+
+	/**
+	 * Starts or stops the continuous autoplay.
+	 */
+	private void toggleContinuous()
+	{
+		continuous = !continuous;
+		lastMoveNanos = 0;
+		moveIntervalMillis = 0;
+		if (continuous)
+		{
+			ponderer.stop();
+			scorePanel.updateStatus(AUTOPLAY);
+			requestAutoPlay();
+		}
+		else
+		{
+			cancelSearch();
+			scorePanel.updateStatus(null);
+		}
+	}
+
+	/**
+	 * Updates the average time between two moves of the continuous autoplay, and shows the move rate.
+	 */
+	private void countContinuousMove()
+	{
+		long now = System.nanoTime();
+		if (lastMoveNanos != 0)
+		{
+			double interval = (now - lastMoveNanos) / 1e6;
+			moveIntervalMillis = moveIntervalMillis == 0 ? interval : MOVE_RATE_SMOOTHING * interval + (1 - MOVE_RATE_SMOOTHING) * moveIntervalMillis;
+			scorePanel.updateStatus(String.format("%s: %.1f moves/s", AUTOPLAY, 1000 / moveIntervalMillis));
+		}
+		lastMoveNanos = now;
+	}
+
+	/**
+	 * Number of frames of an animation of the next move. In continuous autoplay the collapse and the new tile share the average time between two moves, and an
+	 * animation too short to be seen is skipped.
+	 * 
+	 * @param fullFrames
+	 *            number of frames of the animation when it has time
+	 * @return number of frames, 0 to skip the animation
+	 */
+	private int animationFrames(int fullFrames)
+	{
+		if (!continuous || moveIntervalMillis == 0)
+			return fullFrames;
+		int frames = (int) Math.min(fullFrames, moveIntervalMillis / 2 / frameRate);
+		return frames < MIN_FRAMES ? 0 : frames;
+	}
+
+	/**
+	 * Converts a direction of the solver to a direction of the game.
+	 * 
+	 * @param hint
+	 *            direction of the solver
+	 * @return direction of the game
+	 */
+	private static Direction toDirection(DirectionStatus hint)
+	{
+		switch (hint.getDescription())
+		{
+			case "Left":
+				return Direction.LEFT;
+			case "Right":
+				return Direction.RIGHT;
+			case "Up":
+				return Direction.UP;
+			case "Down":
+				return Direction.DOWN;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Listener for timer events. The actionPerformed method is invoked each time the timer fires and only the area of the tiles that changed is redrawn: the moving tiles
+	 * before and after their step, or the new tile while it fades in.
 	 */
 	private class TimerCallback implements ActionListener
 	{
 		@Override
 		public void actionPerformed(ActionEvent arg0)
 		{
+			Rectangle dirty = null;
 			if (frameCount > 0)
 			{
 				for (Tile t : tiles)
-					t.step();
+					if (t.moving())
+					{
+						dirty = addTileArea(dirty, t);
+						t.step();
+						dirty = addTileArea(dirty, t);
+					}
 				frameCount -= 1;
 				if (frameCount == 0)
 				{
 					for (Tile t : tiles)
+					{
+						dirty = addTileArea(dirty, t);
 						t.finish();
+						dirty = addTileArea(dirty, t);
+					}
 					tiles.add(newTile);
-					newTileCount = framesPerNewTile;
+					newTileCount = newTileFrames;
+					dirty = addTileArea(dirty, newTile);
 					scorePanel.updateScore(game.getScore());
 				}
 			}
@@ -442,7 +796,7 @@ public class GamePanel extends JPanel
 			{
 				if (newTileCount > 0)
 				{
-
+					dirty = addTileArea(dirty, newTile);
 					newTileCount -= 1;
 					if (newTileCount == 0)
 					{
@@ -451,7 +805,8 @@ public class GamePanel extends JPanel
 					}
 				}
 			}
-			repaint();
+			if (dirty != null)
+				repaint(dirty);
 		}
 	}
 
@@ -485,120 +840,19 @@ public class GamePanel extends JPanel
 					break;
 				case KeyEvent.VK_A:
 					// log("INFO: Key A");
-					try
-					{
-						dir = autoPlay();
-
-					}
-					catch (CloneNotSupportedException e)
-					{
-						// TODO Auto-generated catch block
-						e.printStackTrace();
-					}
-					break;
-				default:
+					if (!continuous)
+						requestAutoPlay();
+					return;
+				case KeyEvent.VK_C:
+					toggleContinuous();
 					return;
-			}
-			// log("Grid before collapse:");
-			// printGrid();
-			boolean animationSetupOk = true;
-			if (!useAnimation)
-			{
-				game.collapse(dir);
-				log("Grid after collapse:");
-				printGrid();
-			}
-			else
-			{
-				stopAnimation();
-				Tile[][] before = initializeFromGame();
-				Result gameResult = game.collapse(dir);
-				log("Grid after collapse:");
-				printGrid();
-				ArrayList<Move> moves = gameResult.getMoves();
-				if (moves.size() == 0)
-					log("Result contains no moves in this direction");
-				else
-				{
-					ArrayList<NormalizedMove> normalizedMoves = new ArrayList<>();
-					boolean validMoves = createNormalizedMoves(moves, normalizedMoves, before);
-					if (!validMoves)
-					{
-						log("ERROR: unable to attempt animation due to errors in move descriptions");
-						animationSetupOk = false;
-					}
-					TilePosition newTilePosition = gameResult.getNewTile();
-					newTile = new Tile(newTilePosition.getCol(), newTilePosition.getRow(), newTilePosition.getValue());
-					if (newTile == null)
-					{
-						animationSetupOk = false;
-						log("ERROR: unable to attempt animation due to missing new tile position");
-					}
-					if (validMoves && newTile != null)
-					{
-						tiles.clear();
-						for (int row = 0; row < game.getSize(); row += 1)
-							for (int col = 0; col < game.getSize(); col += 1)
-								if (before[row][col] != null)
-								{
-									Tile t = before[row][col];
-									tiles.add(t);
-								}
-						frameCount = framesPerCollapse;
-						timer.start();
-					}
-				}
-			}
-			if (!useAnimation || !animationSetupOk)
-			{
-				scorePanel.updateScore(game.getScore());
-				tiles.clear();
-				for (int row = 0; row < game.getSize(); row += 1)
-					for (int col = 0; col < game.getSize(); col += 1)
-					{
-						int value = game.getCell(row, col);
-						if (value > 0)
-						{
-							Tile t = new Tile(col, row, value);
-							tiles.add(t);
-						}
-					}
-			}
-			repaint();
-		}
-
-		/**
-		 * Generates a step in the game based on the next best move.
-		 * 
-		 * @return direction
-		 * @throws CloneNotSupportedException
-		 *             clone not supported
-		 */
-		private Direction autoPlay() throws CloneNotSupportedException
-		{
-			Board theGame = new Board(game.getGrid());
-			DirectionStatus hint = NextMove.findBestMove(theGame, 7);
-			System.out.println("Best move " + hint);
-			if (hint == null)
-			{
-				JOptionPane.showMessageDialog(null, "GAME OVER! CLICK OK TO CLOSE");
-				if (JOptionPane.OK_OPTION == 1)
-					;
-				System.exit(0);
-			}
-			switch (hint.getDescription())
-			{
-				case "Left":
-					return Direction.LEFT;
-				case "Right":
-					return Direction.RIGHT;
-				case "Up":
-					return Direction.UP;
-				case "Down":
-					return Direction.DOWN;
 				default:
-					return null;
+					return;
 			}
+			if (continuous)
+				toggleContinuous();
+			cancelSearch();
+			play(dir);
 		}
 
 		@Override
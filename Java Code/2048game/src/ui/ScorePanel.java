@@ -25,11 +25,26 @@ public class ScorePanel extends JPanel
 	 */
 	private static final String	SCORE_FORMAT		= "Score: %1d";
 
+	/**
+	 * Font of the score.
+	 */
+	private static final Font	SCORE_FONT			= new Font(Font.SANS_SERIF, Font.PLAIN, GameMain.SCORE_FONT);
+
+	/**
+	 * Font of the status.
+	 */
+	private static final Font	STATUS_FONT			= new Font(Font.SANS_SERIF, Font.ITALIC, GameMain.SCORE_FONT / 2);
+
 	/**
 	 * Score to be displayed.
 	 */
 	private int					score;
 
+	/**
+	 * Status shown under the score, null if none.
+	 */
+	private String				status;
+
 	/**
 	 * Sets the score to be displayed in this panel.
 	 * 
@@ -42,19 +57,36 @@ public class ScorePanel extends JPanel
 		repaint();
 	}
 
+	/**
+	 * Sets the status shown under the score, such as the solver thinking.
+	 * 
+	 * @param newStatus
+	 *            status, null to show none
+	 */
+	public void updateStatus(String newStatus)
+	{
+		this.status = newStatus;
+		repaint();
+	}
+
 	@Override
 	public void paintComponent(Graphics g)
 	{
 		Dimension d = getPreferredSize();
 		((Graphics2D) g).setBackground(BACKGROUND_COLOR);
 		g.clearRect(0, 0, d.width, d.height);
-		Font font = new Font(Font.SANS_SERIF, Font.PLAIN, GameMain.SCORE_FONT);
-		g.setFont(font);
-		FontMetrics metrics = g.getFontMetrics(font);
+		g.setFont(SCORE_FONT);
+		FontMetrics metrics = g.getFontMetrics(SCORE_FONT);
 		String text = String.format(SCORE_FORMAT, score);
 		int width = metrics.stringWidth(text);
 		int x = (d.width - width) / 2;
 		int y = (d.height) / 2;
 		g.drawString(text, x, y);
+		if (status != null)
+		{
+			g.setFont(STATUS_FONT);
+			metrics = g.getFontMetrics(STATUS_FONT);
+			g.drawString(status, (d.width - metrics.stringWidth(status)) / 2, y + metrics.getHeight() + 4);
+		}
 	}
 }
@@ -0,0 +1,84 @@
+package ui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Images of the tiles, one per value, each drawn the first time it is needed and then reused for every frame.
+ *
+ * @author Sayantani Ghosh, Piyush Mantri, Dinesh Papineni
+ */
+class TileImages
+{
+	/**
+	 * Font of the tile values.
+	 */
+	private static final Font		FONT	= new Font(Font.SANS_SERIF, Font.PLAIN, GameMain.SCORE_FONT);
+
+	/**
+	 * Colors cells, indexed by the exponent of the value, larger values take the last color.
+	 */
+	private static final Color[]	COLORS	= {
+			null,
+			new Color(255, 250, 240), // 2
+			new Color(253, 245, 230), // 4
+			new Color(255, 218, 185), // 8
+			new Color(253, 150, 122), // 16
+			new Color(250, 128, 114), // 32
+			new Color(255, 127, 80), // 64
+			new Color(238, 232, 170), // 128
+			new Color(238, 193, 37), // 256
+			new Color(238, 180, 34), // 512
+			new Color(218, 165, 32), // 1024
+			new Color(238, 201, 0), // 2048
+											};
+
+	/**
+	 * Images drawn so far, indexed by the exponent of the value.
+	 */
+	private final BufferedImage[]	images	= new BufferedImage[Integer.SIZE];
+
+	/**
+	 * Returns the image of a tile value, a square of the tile size with transparent corners.
+	 *
+	 * @param value
+	 *            tile value, a power of two
+	 * @return image
+	 */
+	BufferedImage get(int value)
+	{
+		int exponent = Integer.numberOfTrailingZeros(value);
+		if (images[exponent] == null)
+			images[exponent] = draw(value, COLORS[Math.max(Math.min(exponent, COLORS.length - 1), 1)]);
+		return images[exponent];
+	}
+
+	/**
+	 * Draws the image of a tile.
+	 *
+	 * @param value
+	 *            tile value
+	 * @param color
+	 *            tile color
+	 * @return image
+	 */
+	private static BufferedImage draw(int value, Color color)
+	{
+		BufferedImage image = new BufferedImage(GameMain.TILE_SIZE, GameMain.TILE_SIZE, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		g.setColor(color);
+		g.fillRoundRect(4, 4, GameMain.TILE_SIZE - 8, GameMain.TILE_SIZE - 8, 10, 10);
+		g.setFont(FONT);
+		FontMetrics fm = g.getFontMetrics(FONT);
+		String text = "" + value;
+		int h = fm.getHeight();
+		int w = fm.stringWidth(text);
+		g.setColor(Color.BLACK);
+		g.drawString(text, GameMain.TILE_SIZE / 2 - (w / 2), GameMain.TILE_SIZE / 2 + (h / 2) - 2);
+		g.dispose();
+		return image;
+	}
+}